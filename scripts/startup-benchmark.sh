@@ -0,0 +1,143 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time to the first request and to the first PDF of a fresh instance, for each
+# way of starting the application. Build with ./mvnw -Pstartup package first.
+#
+#   scripts/startup-benchmark.sh [mode...]
+#
+# Modes (default: all of them, in this order):
+#   war        java -jar on the packaged war, as before the startup profile
+#   extracted  java -jar on the extracted war in target/startup
+#   aot        extracted, with the build-time bean definitions
+#   aot-cds    extracted, with the build-time bean definitions and the CDS archive
+#
+# Each mode is started RUNS times against the database configured in the prod profile; the schema
+# must exist, since the prod profile doesn't create it. Every run registers a new user, imports a
+# resume and downloads it as a PDF. Reported per run, in milliseconds:
+#   ready  launch until /actuator/health/readiness answers 200, including the warm-up
+#   pdf    launch until the first PDF was downloaded
+#   first  duration of that first PDF request alone
+#
+# Environment: RUNS (default 3), PORT (default 8181), MANAGEMENT_PORT (default 8182), JAVA_OPTS, APP_ARGS (e.g. --spring.datasource.url=...)
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${RUNS:-3}
+PORT=${PORT:-8181}
+MANAGEMENT_PORT=${MANAGEMENT_PORT:-8182}
+BASE_URL="http://localhost:$PORT"
+WAR=$(ls target/online-resume-builder-*.war | head -n 1)
+STARTUP_DIR=target/startup
+WORK_DIR=$(mktemp -d)
+trap 'stop; rm -rf "$WORK_DIR"' EXIT
+
+APP_PID=
+
+now_ms() {
+    date +%s%3N
+}
+
+start() {
+    local mode=$1
+    local jar="$STARTUP_DIR/$(basename "$WAR")"
+    local args=()
+    case $mode in
+        war) jar=$WAR ;;
+        extracted) ;;
+        aot) args=(-Dspring.aot.enabled=true) ;;
+        aot-cds) args=(-Dspring.aot.enabled=true -XX:SharedArchiveFile="$STARTUP_DIR/application.jsa" -Xlog:cds=off) ;;
+        *) echo "Unknown mode: $mode" >&2; exit 1 ;;
+    esac
+    # shellcheck disable=SC2086
+    java ${JAVA_OPTS:-} "${args[@]}" -jar "$jar" --spring.profiles.active=prod --server.port="$PORT" \
+        --management.server.port="$MANAGEMENT_PORT" \
+        ${APP_ARGS:-} > "$WORK_DIR/$mode.log" 2>&1 &
+    APP_PID=$!
+}
+
+stop() {
+    if [ -n "$APP_PID" ]; then
+        kill "$APP_PID" 2> /dev/null || true
+        wait "$APP_PID" 2> /dev/null || true
+        APP_PID=
+    fi
+}
+
+wait_until_ready() {
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$MANAGEMENT_PORT/actuator/health/readiness")" = 200 ]; do
+        if ! kill -0 "$APP_PID" 2> /dev/null; then
+            echo "The application exited, see its log:" >&2
+            tail -n 50 "$WORK_DIR"/*.log >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+}
+
+# The CSRF token of the form on a page
+csrf_token() {
+    curl -s -b "$WORK_DIR/cookies" -c "$WORK_DIR/cookies" "$BASE_URL$1" \
+        | sed -n 's/.*name="_csrf" value="\([^"]*\)".*/\1/p' | head -n 1
+}
+
+# Sign up, sign in and import a resume; prints the id of the imported resume
+create_resume() {
+    local user=$1
+    rm -f "$WORK_DIR/cookies"
+    curl -s -o /dev/null -b "$WORK_DIR/cookies" -c "$WORK_DIR/cookies" "$BASE_URL/register" \
+        --data-urlencode "_csrf=$(csrf_token /register)" --data-urlencode "fullName=Startup Benchmark" \
+        --data-urlencode "email=$user@example.com" --data-urlencode "username=$user" \
+        --data-urlencode "password=startup-benchmark" --data-urlencode "confirmPassword=startup-benchmark"
+    curl -s -o /dev/null -b "$WORK_DIR/cookies" -c "$WORK_DIR/cookies" "$BASE_URL/login" \
+        --data-urlencode "_csrf=$(csrf_token /login)" --data-urlencode "username=$user" \
+        --data-urlencode "password=startup-benchmark"
+    curl -s -o /dev/null -b "$WORK_DIR/cookies" -c "$WORK_DIR/cookies" "$BASE_URL/resumes/import" \
+        -H "X-CSRF-TOKEN: $(csrf_token /resumes/create)" -F "file=@$WORK_DIR/resume.json;type=application/json"
+    curl -s -b "$WORK_DIR/cookies" "$BASE_URL/dashboard" \
+        | sed -n 's#.*href="/resumes/\([0-9]*\)/download".*#\1#p' | head -n 1
+}
+
+cat > "$WORK_DIR/resume.json" <<'JSON'
+{
+  "basics": {"name": "Startup Benchmark", "label": "Software Engineer",
+             "summary": "Engineer with a long track record of building and operating web applications."},
+  "work": [
+    {"name": "Company A", "position": "Senior Engineer", "startDate": "2019-01", "summary": "Ran the platform team."},
+    {"name": "Company B", "position": "Engineer", "startDate": "2015-03", "endDate": "2018-12", "summary": "Built the billing system."}
+  ],
+  "education": [{"institution": "State University", "area": "Computer Science", "studyType": "BSc",
+                 "startDate": "2011-09", "endDate": "2015-06"}],
+  "skills": [{"name": "Java", "level": "Expert"}, {"name": "Spring", "level": "Advanced"}, {"name": "SQL", "level": "Advanced"}],
+  "languages": [{"language": "English", "fluency": "Native"}],
+  "interests": [{"name": "Chess"}]
+}
+JSON
+
+MODES=("$@")
+if [ ${#MODES[@]} -eq 0 ]; then
+    MODES=(war extracted aot aot-cds)
+fi
+
+printf '%-10s %4s %8s %8s %8s\n' mode run ready pdf first
+for mode in "${MODES[@]}"; do
+    for run in $(seq 1 "$RUNS"); do
+        launched=$(now_ms)
+        start "$mode"
+        wait_until_ready
+        ready=$(now_ms)
+
+        id=$(create_resume "startup-$(date +%s%N)")
+        if [ -z "$id" ]; then
+            echo "Could not create a resume, see $WORK_DIR/$mode.log" >&2
+            exit 1
+        fi
+        requested=$(now_ms)
+        curl -s -f -o /dev/null -b "$WORK_DIR/cookies" "$BASE_URL/resumes/$id/download?template=modern"
+        downloaded=$(now_ms)
+        stop
+
+        printf '%-10s %4s %8s %8s %8s\n' "$mode" "$run" $((ready - launched)) $((downloaded - launched)) \
+            $((downloaded - requested))
+    done
+done
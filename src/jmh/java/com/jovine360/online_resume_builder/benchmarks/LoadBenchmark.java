@@ -0,0 +1,156 @@
+package com.jovine360.online_resume_builder.benchmarks;
+
+import com.jovine360.online_resume_builder.OnlineResumeBuilderApplication;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import com.jovine360.online_resume_builder.services.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput and latency percentiles of signed-in requests and of a shared link under concurrent
+ * load, with request handling on platform threads (Tomcat's thread per request) and on virtual threads.
+ * <p>
+ * The application runs inside the benchmark JVM with the test profile, so on H2 and without the PDF
+ * cache; every client thread is a concurrent user of the same session. Virtual threads need a Java
+ * 21 runtime; on older ones Spring Boot ignores {@code spring.threads.virtual.enabled} and both
+ * parameters measure platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(16)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class LoadBenchmark {
+
+    private static final String PASSWORD = "load-benchmark";
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpClient anonymousClient;
+    private String baseUrl;
+    private Long resumeId;
+    private String shareToken;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(OnlineResumeBuilderApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--statement-budget.fail-when-exceeded=false",
+                        "--resume.search.rebuild-on-startup=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.jovine360.online_resume_builder=WARN");
+        baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+        User user = new User();
+        user.setUsername("load");
+        user.setPassword(PASSWORD);
+        user.setEmail("load@example.com");
+        user.setFullName("Load Benchmark");
+        user = context.getBean(UserService.class).registerUser(user);
+
+        Resume resume = SyntheticResumes.create(10);
+        resume.setId(null);
+        resumeId = context.getBean(ResumeService.class).createResume(resume, user.getId()).getId();
+        shareToken = context.getBean(ResumeService.class).shareResume(resumeId);
+
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        signIn();
+        anonymousClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public int viewResume() throws Exception {
+        return get("/resumes/" + resumeId);
+    }
+
+    @Benchmark
+    public int downloadPdf() throws Exception {
+        return get("/resumes/" + resumeId + "/download");
+    }
+
+    @Benchmark
+    public int viewSharedResume() throws Exception {
+        // Recruiters open shared links without signing in
+        return get(anonymousClient, "/resumes/shared/" + shareToken);
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        return get(client, path);
+    }
+
+    private int get(HttpClient client, String path) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private void signIn() throws IOException, InterruptedException {
+        String loginPage = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login")).build(),
+                HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(loginPage);
+        if (!csrf.find()) {
+            throw new IllegalStateException("No CSRF token on the login page");
+        }
+        String form = "username=load&password=" + PASSWORD
+                + "&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                        .header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form))
+                        .build(),
+                HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (!location.endsWith("/dashboard")) {
+            throw new IllegalStateException("Sign-in failed, redirected to " + location);
+        }
+    }
+}
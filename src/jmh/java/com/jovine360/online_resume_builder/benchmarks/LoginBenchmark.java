@@ -0,0 +1,71 @@
+package com.jovine360.online_resume_builder.benchmarks;
+
+import com.jovine360.online_resume_builder.config.PasswordHashConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second on one core at each BCrypt cost, through the same {@link DaoAuthenticationProvider}
+ * and password encoder as the form login. The user lookup is an in-memory stub, so the numbers are
+ * the CPU ceiling of a login storm; multiply by the cores of a node to size it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    private int strength;
+
+    private DaoAuthenticationProvider provider;
+
+    @Setup
+    public void setUp() {
+        PasswordHashConfiguration configuration = new PasswordHashConfiguration();
+        configuration.setBcryptStrength(strength);
+        PasswordEncoder encoder = configuration.passwordEncoder();
+        UserDetails user = User.withUsername("jane").password(encoder.encode(PASSWORD)).roles("USER").build();
+
+        provider = new DaoAuthenticationProvider(username -> user);
+        provider.setPasswordEncoder(encoder);
+    }
+
+    @Benchmark
+    public Authentication login() {
+        return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("jane", PASSWORD));
+    }
+
+    // A wrong password costs the same hash, so failed attempts load the CPU like successful ones
+    @Benchmark
+    public boolean failedLogin() {
+        try {
+            provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("jane", "wrong"));
+            return true;
+        } catch (BadCredentialsException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.jovine360.online_resume_builder.benchmarks;
+
+import com.jovine360.online_resume_builder.config.FontConfiguration;
+import com.jovine360.online_resume_builder.config.PdfCacheConfiguration;
+import com.jovine360.online_resume_builder.config.PdfOutputConfiguration;
+import com.jovine360.online_resume_builder.config.PdfRenderThreadConfiguration;
+import com.jovine360.online_resume_builder.config.PdfTemplateConfiguration;
+import com.jovine360.online_resume_builder.config.RendererPoolConfiguration;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.services.impl.FontRegistry;
+import com.jovine360.online_resume_builder.services.impl.PDFService;
+import com.jovine360.online_resume_builder.services.impl.PdfCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link PDFService#generatePDF(Resume, String)} for every template and resume size.
+ * <p>
+ * The service is wired as in the application, with the renderer pool and template caches enabled
+ * but the rendered PDF cache disabled, so every operation renders. Run with {@code -prof gc} (the
+ * profile's default arguments) to get bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PdfRenderBenchmark {
+
+    @Param({"default", "modern", "professional", "creative", "minimal"})
+    private String template;
+
+    // Small, medium and very large resumes; every experience carries two projects
+    @Param({"2", "20", "200"})
+    private int experiences;
+
+    private PDFService pdfService;
+    private Resume resume;
+
+    @Setup
+    public void setUp() throws Exception {
+        pdfService = createPdfService();
+        resume = SyntheticResumes.create(experiences);
+    }
+
+    @Benchmark
+    public byte[] generatePDF() {
+        return pdfService.generatePDF(resume, template);
+    }
+
+    static PDFService createPdfService() throws Exception {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FontConfiguration fontConfiguration = new FontConfiguration();
+        PdfOutputConfiguration outputConfiguration = new PdfOutputConfiguration();
+        FontRegistry fontRegistry = new FontRegistry(fontConfiguration, outputConfiguration);
+        fontRegistry.preload();
+
+        PdfCacheConfiguration cacheConfiguration = new PdfCacheConfiguration();
+        cacheConfiguration.setEnabled(false);
+        PdfCache pdfCache = new PdfCache(cacheConfiguration, fontConfiguration, outputConfiguration, meterRegistry);
+        pdfCache.init();
+
+        PDFService pdfService = new PDFService(templateEngine, fontRegistry, pdfCache,
+                new RendererPoolConfiguration(), new PdfTemplateConfiguration(), outputConfiguration,
+                new PdfRenderThreadConfiguration(), meterRegistry);
+        pdfService.init();
+        return pdfService;
+    }
+}
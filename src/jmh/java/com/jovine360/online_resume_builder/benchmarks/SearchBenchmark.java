@@ -0,0 +1,129 @@
+package com.jovine360.online_resume_builder.benchmarks;
+
+import com.jovine360.online_resume_builder.config.ResumeSearchConfiguration;
+import com.jovine360.online_resume_builder.models.Experience;
+import com.jovine360.online_resume_builder.models.Project;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.Skill;
+import com.jovine360.online_resume_builder.services.impl.ResumeSearchService;
+import com.jovine360.online_resume_builder.services.impl.ResumeSearchService.SearchHit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of {@link ResumeSearchService} over a library of generated resumes, for one user's
+ * resumes and across all users. Sample time mode reports percentiles, including p0.99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SearchBenchmark {
+
+    private static final String[] TITLES = {"Software Engineer", "Backend Developer", "Data Scientist",
+            "Product Manager", "DevOps Engineer", "Frontend Developer", "QA Engineer", "Solutions Architect"};
+    private static final String[] SKILLS = {"Java", "Spring", "Kotlin", "Python", "Django", "React", "Angular",
+            "TypeScript", "Go", "Rust", "C++", "C#", ".NET", "Node.js", "SQL", "MySQL", "PostgreSQL", "MongoDB",
+            "Redis", "Kafka", "Docker", "Kubernetes", "AWS", "Azure", "GCP", "Terraform", "Linux", "Spark",
+            "Hadoop", "TensorFlow", "PyTorch", "Scala", "Elixir", "Ruby", "Rails", "PHP", "Laravel", "Swift"};
+
+    @Param({"20000"})
+    private int resumes;
+
+    // Resumes per user
+    @Param({"100"})
+    private int library;
+
+    private ResumeSearchService searchService;
+
+    @Setup
+    public void setUp() {
+        searchService = new ResumeSearchService(new ResumeSearchConfiguration(), null, null, new SimpleMeterRegistry());
+        Random random = new Random(42);
+        for (int i = 1; i <= resumes; i++) {
+            searchService.index(resume(i, random), (long) (i % (resumes / library)));
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> userLibrary() {
+        return searchService.search("java spring", 7L, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> userLibraryPrefix() {
+        return searchService.search("backend kaf", 7L, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> allCommonTerm() {
+        return searchService.search("engineer", null, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> allMultiTerm() {
+        return searchService.search("senior java kubernetes", null, 20);
+    }
+
+    @Benchmark
+    public List<SearchHit> allPrefix() {
+        return searchService.search("py", null, 20);
+    }
+
+    private static Resume resume(long id, Random random) {
+        Resume resume = new Resume();
+        resume.setId(id);
+        resume.setTitle((random.nextBoolean() ? "Senior " : "") + pick(TITLES, random));
+        resume.setSummary(words(random, 40));
+        for (int i = 0; i < 4; i++) {
+            Experience experience = new Experience();
+            experience.setJobTitle(pick(TITLES, random));
+            experience.setCompanyName("Company " + random.nextInt(500));
+            experience.setDescription(words(random, 60));
+            for (int j = 0; j < 2; j++) {
+                Project project = new Project();
+                project.setName("Project " + words(random, 2));
+                project.setTechnologies(pick(SKILLS, random) + ", " + pick(SKILLS, random));
+                project.setDescription(words(random, 20));
+                experience.getProjects().add(project);
+            }
+            resume.getExperiences().add(experience);
+        }
+        for (int i = 0; i < 8; i++) {
+            Skill skill = new Skill();
+            skill.setName(pick(SKILLS, random));
+            resume.getSkills().add(skill);
+        }
+        return resume;
+    }
+
+    // Skewed towards low word numbers, like the word frequencies of real text
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double r = random.nextDouble();
+            text.append("word").append((int) (5000 * r * r * r)).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,102 @@
+package com.jovine360.online_resume_builder.benchmarks;
+
+import com.jovine360.online_resume_builder.models.Certification;
+import com.jovine360.online_resume_builder.models.Education;
+import com.jovine360.online_resume_builder.models.Experience;
+import com.jovine360.online_resume_builder.models.Hobby;
+import com.jovine360.online_resume_builder.models.Language;
+import com.jovine360.online_resume_builder.models.Project;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.Skill;
+import com.jovine360.online_resume_builder.models.User;
+
+import java.time.LocalDate;
+
+/**
+ * Builds detached resume graphs of a given size for benchmarks
+ */
+final class SyntheticResumes {
+
+    private SyntheticResumes() {
+    }
+
+    /**
+     * Build a resume with the given number of experiences, each carrying two projects
+     *
+     * @param experiences Number of experiences
+     * @return A fully populated resume that is not attached to any persistence context
+     */
+    static Resume create(int experiences) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark");
+        user.setFullName("Benchmark User");
+        user.setEmail("benchmark@example.com");
+
+        Resume resume = new Resume();
+        resume.setId((long) experiences);
+        resume.setTitle("Senior Software Engineer");
+        resume.setSummary("Engineer with a long track record of building and operating web applications. "
+                .repeat(3));
+        resume.setUser(user);
+
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < experiences; i++) {
+            Experience experience = new Experience();
+            experience.setCompanyName("Company " + i);
+            experience.setJobTitle("Software Engineer " + i);
+            experience.setStartDate(start.plusMonths(i * 6L));
+            experience.setEndDate(start.plusMonths(i * 6L + 5));
+            experience.setDescription("Designed, built and ran services used by thousands of customers. "
+                    .repeat(2));
+            experience.setResume(resume);
+            for (int j = 0; j < 2; j++) {
+                Project project = new Project();
+                project.setName("Project " + i + "." + j);
+                project.setDescription("Migrated a legacy system to a new platform.");
+                project.setTechnologies("Java, Spring Boot, MySQL");
+                project.setExperience(experience);
+                experience.getProjects().add(project);
+            }
+            resume.getExperiences().add(experience);
+        }
+
+        Education education = new Education();
+        education.setInstitution("State University");
+        education.setDegree("BSc");
+        education.setFieldOfStudy("Computer Science");
+        education.setStartDate(LocalDate.of(1996, 9, 1));
+        education.setEndDate(LocalDate.of(2000, 6, 30));
+        education.setResume(resume);
+        resume.getEducations().add(education);
+
+        for (String name : new String[]{"Java", "Spring", "SQL", "Docker", "Kubernetes"}) {
+            Skill skill = new Skill();
+            skill.setName(name);
+            skill.setProficiencyLevel(4);
+            skill.setResume(resume);
+            resume.getSkills().add(skill);
+        }
+
+        Certification certification = new Certification();
+        certification.setName("Cloud Architect");
+        certification.setIssuingOrganization("Cloud Vendor");
+        certification.setIssueDate(LocalDate.of(2020, 1, 1));
+        certification.setExpirationDate(LocalDate.of(2023, 1, 1));
+        certification.setResume(resume);
+        resume.getCertifications().add(certification);
+
+        Language language = new Language();
+        language.setName("English");
+        language.setProficiencyLevel("Native");
+        language.setResume(resume);
+        resume.getLanguages().add(language);
+
+        Hobby hobby = new Hobby();
+        hobby.setName("Chess");
+        hobby.setResume(resume);
+        resume.getHobbies().add(hobby);
+
+        return resume;
+    }
+}
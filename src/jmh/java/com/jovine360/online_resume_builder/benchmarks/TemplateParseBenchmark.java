@@ -0,0 +1,115 @@
+package com.jovine360.online_resume_builder.benchmarks;
+
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.services.impl.XhtmlParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-render parse cost of the PDF templates before and after template caching.
+ * <p>
+ * The "uncached" and "inline" benchmarks reproduce the old setup: the Thymeleaf template is parsed
+ * on every render, the XHTML goes through {@code setDocumentFromString} and the CSS is embedded in a
+ * {@code <style>} element that Flying Saucer parses again for every document. The "cached"
+ * benchmarks use the Thymeleaf template cache, the reused {@link XhtmlParser} and the linked
+ * template stylesheet, which a reused renderer parses once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateParseBenchmark {
+
+    @Param({"default", "modern", "professional", "creative", "minimal"})
+    private String template;
+
+    private SpringTemplateEngine uncachedEngine;
+    private SpringTemplateEngine cachedEngine;
+    private String templatePath;
+    private Context context;
+    private String baseUrl;
+    private String linkedHtml;
+    private String inlineHtml;
+    private ITextRenderer renderer;
+    private XhtmlParser xhtmlParser;
+
+    @Setup
+    public void setUp() throws Exception {
+        Resume resume = SyntheticResumes.create(2);
+        context = new Context();
+        context.setVariable("resume", resume);
+        context.setVariable("templateName", template);
+
+        uncachedEngine = templateEngine(false);
+        cachedEngine = templateEngine(true);
+        String name = "default".equals(template) ? "resume-template" : "resume-template-" + template;
+        templatePath = "pdf/" + name;
+        baseUrl = new ClassPathResource("templates/pdf/resume-template.html").getURL().toExternalForm();
+
+        linkedHtml = cachedEngine.process(templatePath, context);
+        String css = new ClassPathResource("templates/pdf/" + name + ".css")
+                .getContentAsString(StandardCharsets.UTF_8);
+        inlineHtml = linkedHtml.replace("<link rel=\"stylesheet\" href=\"" + name + ".css\"/>",
+                "<style>\n" + css + "</style>");
+        if (inlineHtml.equals(linkedHtml)) {
+            throw new IllegalStateException("Template " + template + " does not link its stylesheet");
+        }
+
+        xhtmlParser = new XhtmlParser();
+        renderer = new ITextRenderer();
+        renderer.getSharedContext().setPrint(true);
+        renderer.getSharedContext().setInteractive(false);
+    }
+
+    private static SpringTemplateEngine templateEngine(boolean cacheable) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(cacheable);
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    @Benchmark
+    public String processTemplateUncached() {
+        return uncachedEngine.process(templatePath, context);
+    }
+
+    @Benchmark
+    public String processTemplateCached() {
+        return cachedEngine.process(templatePath, context);
+    }
+
+    @Benchmark
+    public ITextRenderer setDocumentInlineStylesheet() {
+        renderer.setDocumentFromString(inlineHtml);
+        return renderer;
+    }
+
+    @Benchmark
+    public ITextRenderer setDocumentCachedStylesheet() throws Exception {
+        renderer.setDocument(xhtmlParser.parse(linkedHtml), baseUrl);
+        return renderer;
+    }
+}
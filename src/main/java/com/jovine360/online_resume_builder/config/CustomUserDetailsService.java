@@ -5,6 +5,7 @@ import com.jovine360.online_resume_builder.services.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -14,28 +15,48 @@ import java.util.Collections;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     
     private final UserService userService;
     
+    /**
+     * Read on the primary: registering is an anonymous write that no replica has to have received
+     * before the new user signs in, and the same goes for a changed password.
+     */
     @Override
-    @Transactional(readOnly = true)
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Try to find by username first
-        User user = userService.findByUsername(username)
-                .orElse(null);
+        // Users sign in with their username or their email address
+        User user = userService.findByUsernameOrEmail(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + username));
         
-        // If not found by username, try by email
-        if (user == null) {
-            user = userService.findByEmail(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + username));
-        }
-        
-        // Create Spring Security UserDetails object
-        return new org.springframework.security.core.userdetails.User(
+        // Keep the id, so requests can check ownership without loading the user again
+        return principal(user);
+    }
+    
+    /**
+     * Store a password hash re-encoded on login, such as one with an outdated BCrypt cost
+     *
+     * @param user The user that just signed in
+     * @param newPassword The new hash of the password
+     * @return The user with the new hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User account = userService.findById(((UserPrincipal) user).getId())
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + user.getUsername()));
+        account.setPassword(newPassword);
+        return principal(userService.updateUser(account));
+    }
+    
+    private static UserPrincipal principal(User user) {
+        return new UserPrincipal(
+            user.getId(),
             user.getUsername(),
             user.getPassword(),
+            user.getFullName(),
             Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package com.jovine360.online_resume_builder.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits database traffic between the {@code spring.datasource} primary and read replicas, see
+ * {@link ReadWriteRoutingDataSource}. Without {@code datasource.routing.enabled} the application
+ * uses the primary only, as configured by Spring Boot.
+ * <p>
+ * Every pool takes its settings from {@code spring.datasource.hikari.*} and exports its metrics as
+ * {@code hikaricp.*} tagged with the pool name.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "datasource.routing")
+@ConditionalOnProperty(prefix = "datasource.routing", name = "enabled")
+@Data
+public class DataSourceRoutingConfiguration {
+
+    private boolean enabled = false;
+
+    // Read replicas of the primary; username and password default to the primary's
+    private List<Replica> replicas = new ArrayList<>();
+
+    // How often replicas are probed; a replica that fails a probe or a connection serves no reads until it passes one
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    // How long a read waits for a replica connection before falling back to the primary
+    private Duration replicaConnectionTimeout = Duration.ofSeconds(2);
+
+    // After a user's write, their reads go to the primary for this long; keep it above the replication lag
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(DataSourceProperties properties, Environment environment,
+                                                       MeterRegistry meterRegistry) {
+        HikariDataSource primary = pool(properties.initializeDataSourceBuilder().type(HikariDataSource.class).build(),
+                ReadWriteRoutingDataSource.PRIMARY, environment, meterRegistry);
+
+        List<ReadWriteRoutingDataSource.Replica> pools = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(i);
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername() != null ? replica.getUsername() : properties.determineUsername())
+                    .password(replica.getPassword() != null ? replica.getPassword() : properties.determinePassword())
+                    .build();
+            String name = "replica-" + (i + 1);
+            pool(dataSource, name, environment, meterRegistry);
+            dataSource.setReadOnly(true);
+            dataSource.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            pools.add(new ReadWriteRoutingDataSource.Replica(name, dataSource));
+        }
+        return new ReadWriteRoutingDataSource(primary, pools, healthCheckInterval, readYourWritesWindow, meterRegistry);
+    }
+
+    /**
+     * The data source of the application. Connections are only taken from the routing data source
+     * on the first statement, once the transaction is known to be read-only or not.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Hibernate holds a session's connection until the session closes by default, which with open
+     * session in view would serve every transaction of a request from the first one's target.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandlingCustomizer() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private static HikariDataSource pool(HikariDataSource dataSource, String name, Environment environment,
+                                         MeterRegistry meterRegistry) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+}
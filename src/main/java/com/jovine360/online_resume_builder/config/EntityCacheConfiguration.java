@@ -0,0 +1,70 @@
+package com.jovine360.online_resume_builder.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+@ConfigurationProperties(prefix = "entity-cache")
+@Data
+public class EntityCacheConfiguration {
+
+    public static final String USERS = "users";
+    public static final String RESUMES = "resumes";
+
+    // Users by username and by email, read on every login
+    private Region users = new Region(10_000, Duration.ofMinutes(10));
+
+    // Resumes with all their sections, as rendered by the views and the PDF service
+    private Region resumes = new Region(1_000, Duration.ofMinutes(10));
+
+    @Data
+    public static class Region {
+        private long maxSize;
+
+        // Bounds how long a change made outside the services stays invisible
+        private Duration ttl;
+
+        public Region() {
+        }
+
+        public Region(long maxSize, Duration ttl) {
+            this.maxSize = maxSize;
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Size and time bounded caches, one per region. Statistics are recorded, so the actuator exports
+     * hits, misses and evictions of each region as {@code cache.gets} and {@code cache.evictions}.
+     * <p>
+     * Puts and evictions made in a transaction are applied once it commits, so a read racing a save
+     * can't cache the old resume again after the eviction, and a rolled back save evicts nothing.
+     */
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Missing users and resumes are not cached, so registering needs no eviction
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(USERS, build(users));
+        cacheManager.registerCustomCache(RESUMES, build(resumes));
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> build(Region region) {
+        return Caffeine.newBuilder()
+                .maximumSize(region.getMaxSize())
+                .expireAfterWrite(region.getTtl())
+                .recordStats()
+                .build();
+    }
+}
@@ -16,6 +16,7 @@ public class FontConfiguration {
     
     private Map<String, TemplateFonts> templates = new HashMap<>();
     private boolean enableCustomFonts = true;
+    private boolean preload = true;
     private String fontBasePath = "static/fonts/";
     
     @Data
@@ -0,0 +1,59 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Configuration
+@ConfigurationProperties(prefix = "security.password-hash")
+@Data
+public class PasswordHashConfiguration {
+
+    private static final String BCRYPT = "bcrypt";
+
+    // BCrypt cost; each step doubles the CPU time of a login, see LoginBenchmark for logins per core
+    private int bcryptStrength = 10;
+
+    /**
+     * Hashes new passwords as {@code {bcrypt}} at {@code security.password-hash.bcrypt-strength}.
+     * <p>
+     * Hashes stored before the {@code {id}} prefix was introduced are plain BCrypt and still match.
+     * On login, any hash without the prefix or with another cost is re-encoded and saved through
+     * {@link CustomUserDetailsService#updatePassword}, so changing the cost takes effect for every
+     * user at their next login, whether it goes up or down.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder() {
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(BCRYPT,
+                Map.of(BCRYPT, new TunedBCryptPasswordEncoder(bcryptStrength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    private static final class TunedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private static final Pattern COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+        private final int strength;
+
+        TunedBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        // The stock encoder only upgrades hashes weaker than its strength
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            Matcher matcher = COST.matcher(encodedPassword == null ? "" : encodedPassword);
+            return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.cache")
+@Data
+public class PdfCacheConfiguration {
+
+    private boolean enabled = true;
+
+    // Bump to invalidate every cached PDF, e.g. after a renderer upgrade
+    private String version = "1";
+
+    // Largest single PDF that is cached
+    private DataSize maxEntrySize = DataSize.ofMegabytes(5);
+
+    private DataSize memoryMaxSize = DataSize.ofMegabytes(64);
+
+    private boolean diskEnabled = true;
+    private DataSize diskMaxSize = DataSize.ofMegabytes(512);
+    // Owned by the application and readable by its user alone, unlike the shared temp directory
+    private Path diskDirectory = Path.of(System.getProperty("user.home"), ".online-resume-builder", "pdf-cache");
+}
@@ -0,0 +1,18 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.export")
+@Data
+public class PdfExportConfiguration {
+
+    // Renders running at once across all exports; each export also keeps at most this many in flight
+    private int maxConcurrency = Runtime.getRuntime().availableProcessors();
+
+    // PDF bytes a single export may contain; later entries are left out of the archive
+    private DataSize maxTotalSize = DataSize.ofMegabytes(200);
+}
@@ -0,0 +1,19 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.zip.Deflater;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.output")
+@Data
+public class PdfOutputConfiguration {
+
+    // Subset embedded fonts to the glyphs used and write compressed object and xref streams (PDF 1.5)
+    private boolean optimize = true;
+
+    // Deflate level (0-9) used for page content and font streams
+    private int compressionLevel = Deflater.BEST_COMPRESSION;
+}
@@ -0,0 +1,38 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.render-jobs")
+@Data
+public class PdfRenderJobConfiguration {
+
+    // Rendering is CPU bound, so one worker per core
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    // Jobs waiting beyond this are rejected with 429
+    private int queueCapacity = 100;
+
+    // How long finished jobs and their PDFs are kept for polling
+    private Duration resultTtl = Duration.ofMinutes(10);
+
+    // Jobs kept at once, queued, running or finished; the oldest finished ones make room first
+    private int maxJobs = 1000;
+
+    // Jobs one user may have queued, running or waiting for download; further submits are rejected with 429
+    private int maxJobsPerUser = 10;
+
+    // Total size of the PDFs kept for download; the oldest finished jobs make room first
+    private DataSize maxResultSize = DataSize.ofMegabytes(256);
+
+    // How often expired jobs are dropped
+    private Duration purgeInterval = Duration.ofMinutes(1);
+
+    // Retry-After sent on rejection when no render time has been measured yet
+    private Duration retryAfter = Duration.ofSeconds(5);
+}
@@ -0,0 +1,17 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.render-threads")
+@Data
+public class PdfRenderThreadConfiguration {
+
+    // Hand renders started on virtual threads to platform threads; only matters with spring.threads.virtual.enabled
+    private boolean enabled = true;
+
+    // Rendering is CPU bound, so one thread per core
+    private int size = Runtime.getRuntime().availableProcessors();
+}
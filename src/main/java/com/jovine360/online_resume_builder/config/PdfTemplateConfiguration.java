@@ -0,0 +1,14 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.templates")
+@Data
+public class PdfTemplateConfiguration {
+
+    // Keep the parsed pdf/* templates in the Thymeleaf cache even when spring.thymeleaf.cache is off
+    private boolean cache = true;
+}
@@ -0,0 +1,208 @@
+package com.jovine360.online_resume_builder.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to the replicas, round robin, and everything else to the primary.
+ * <p>
+ * Reads fall back to the primary when no replica is healthy. A replica is healthy once it passes
+ * a periodic probe and until a probe or a connection attempt fails. After a user commits a write,
+ * their reads go to the primary for a while, so they see their own changes despite replication lag.
+ * <p>
+ * The routing decision needs the read-only flag of the transaction, which Spring only sets after
+ * the transaction manager asked for a connection, so this data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Cache<Long, Boolean> recentWriters;
+    private final ScheduledExecutorService healthChecker;
+    private final AtomicInteger next = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    private record Route(String key, String reason) {
+    }
+
+    static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private volatile boolean healthy;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    ReadWriteRoutingDataSource(HikariDataSource primary, List<Replica> replicas, Duration healthCheckInterval,
+                               Duration readYourWritesWindow, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.meterRegistry = meterRegistry;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        Gauge.builder("datasource.routing.replicas.healthy", replicas,
+                        all -> all.stream().filter(replica -> replica.healthy).count())
+                .description("Replicas currently serving reads")
+                .register(meterRegistry);
+
+        // Replicas serve no reads until their first probe passed
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0,
+                healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return route().key();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Route route = route();
+        String key = route.key();
+        DataSource target = (DataSource) getResolvedDataSources().get(key);
+        try {
+            Connection connection = target.getConnection();
+            count(key, route.reason());
+            return connection;
+        } catch (SQLException e) {
+            if (PRIMARY.equals(key)) {
+                throw e;
+            }
+            markDown(key, e);
+            Connection connection = primary.getConnection();
+            count(PRIMARY, "fallback");
+            return connection;
+        }
+    }
+
+    private Route route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWrite();
+            return new Route(PRIMARY, "write");
+        }
+        Long userId = currentUserId();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return new Route(PRIMARY, "read-your-writes");
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (replica.healthy) {
+                return new Route(replica.name, "read");
+            }
+        }
+        return new Route(PRIMARY, "no-replica");
+    }
+
+    private void recordWrite() {
+        Long userId = currentUserId();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            }
+        });
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return null;
+    }
+
+    /**
+     * Probe every replica and update its health
+     */
+    synchronized void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid((int) Math.max(1, replica.dataSource.getValidationTimeout() / 1000));
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.healthy) {
+                log.info("Replica {} is {}", replica.name, healthy ? "up" : "down");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    private void markDown(String key, SQLException cause) {
+        for (Replica replica : replicas) {
+            if (replica.name.equals(key) && replica.healthy) {
+                replica.healthy = false;
+                log.warn("Replica {} is down, reading from the primary until it passes a health check", key, cause);
+            }
+        }
+    }
+
+    private void count(String target, String reason) {
+        Counter.builder("datasource.routing.connections")
+                .description("Connections handed out, by target and routing reason")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.close();
+    }
+}
@@ -0,0 +1,24 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "pdf.renderer-pool")
+@Data
+public class RendererPoolConfiguration {
+
+    private boolean enabled = true;
+
+    // Renderers created per template at startup
+    private int minIdle = 1;
+
+    // Upper bound of renderers per template, idle and in use
+    private int maxSize = Runtime.getRuntime().availableProcessors();
+
+    // How long a render waits for a free renderer before failing
+    private Duration borrowTimeout = Duration.ofSeconds(5);
+}
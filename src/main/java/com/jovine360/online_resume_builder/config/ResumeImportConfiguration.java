@@ -0,0 +1,20 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "resume.import")
+@Data
+public class ResumeImportConfiguration {
+
+    // Resumes written per transaction; a failing chunk is retried one resume at a time
+    private int chunkSize = 500;
+
+    // Rows sent per JDBC batch
+    private int batchSize = 1000;
+
+    // Record errors listed in the import report; later ones are only counted
+    private int maxReportedErrors = 100;
+}
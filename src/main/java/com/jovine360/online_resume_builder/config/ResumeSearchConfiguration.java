@@ -0,0 +1,26 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "resume.search")
+@Data
+public class ResumeSearchConfiguration {
+
+    // Rebuild the index from the database on startup; without it only changes made since are searchable
+    private boolean rebuildOnStartup = true;
+
+    // Threads reading and tokenizing resumes during a rebuild
+    private int rebuildThreads = Runtime.getRuntime().availableProcessors();
+
+    // Resume ids read per rebuild task
+    private int rebuildBatchSize = 1000;
+
+    // Hits returned when the request asks for more, or for none
+    private int maxResults = 50;
+
+    // Index terms the last query term matches as a prefix, so short prefixes stay cheap
+    private int maxPrefixExpansions = 50;
+}
@@ -1,17 +1,22 @@
 // SecurityConfiguration.java
 package com.jovine360.online_resume_builder.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.util.matcher.AndRequestMatcher;
 
@@ -21,11 +26,18 @@ import org.springframework.security.web.util.matcher.AndRequestMatcher;
 @RequiredArgsConstructor
 public class SecurityConfiguration {
 
+    // Set in the prod profile; unset, actuator shares the application port
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/", "/home", "/register", "/css/**", "/js/**", "/images/**").permitAll()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .requestMatchers(new AndRequestMatcher(EndpointRequest.to(PrometheusScrapeEndpoint.class),
+                        this::isManagementPort)).permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -42,9 +54,30 @@ public class SecurityConfiguration {
         return http.build();
     }
 
+    /**
+     * Scrapers reach the metrics without login only on the management port, which is kept off the
+     * public network; on the application port they need a signed-in user like every other page.
+     */
+    private boolean isManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && request.getLocalPort() == managementPort;
+    }
+
+    /**
+     * Shared resumes are public snapshots looked up by an unguessable token. Their chain keeps the
+     * default response headers but is stateless, so serving one creates no session and reads none.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Order(1)
+    public SecurityFilterChain sharedResumeSecurityFilterChain(HttpSecurity http) throws Exception {
+        http
+            .securityMatcher("/resumes/shared/**")
+            .authorizeHttpRequests(authz -> authz.anyRequest().permitAll())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .requestCache(cache -> cache.disable())
+            // Read-only links, never a form target
+            .csrf(csrf -> csrf.disable());
+
+        return http.build();
     }
 
     @Bean
@@ -0,0 +1,24 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "resume.sharing")
+@Data
+public class SharedResumeConfiguration {
+
+    // Snapshots of shared resumes kept in memory; evicted ones are rendered again on their next request
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    // Offer the PDF next to the page, rendered on its first download and kept with the snapshot
+    private boolean pdfEnabled = true;
+
+    // Tokens no resume is shared under, remembered so asking for them again doesn't query the database
+    private long maxUnknownTokens = 10_000;
+    private Duration unknownTokenTtl = Duration.ofMinutes(1);
+}
@@ -0,0 +1,119 @@
+package com.jovine360.online_resume_builder.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.Data;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL queries of every HTTP request and every {@code ResumeService} and
+ * {@code UserService} call against a budget, so N+1 queries show up in the logs, or fail the
+ * request when {@code statement-budget.fail-when-exceeded} is set, as in the tests.
+ * <p>
+ * Counts are also recorded as {@code jdbc.statements.request} per handler pattern and
+ * {@code jdbc.statements.method} per service method.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "statement-budget")
+@ConditionalOnProperty(prefix = "statement-budget", name = "enabled", matchIfMissing = true)
+@Data
+public class StatementBudgetConfiguration {
+
+    private boolean enabled = true;
+
+    // Queries one HTTP request may run, including lazy loading in the view
+    private int perRequest = 20;
+
+    // Queries one service call may run
+    private int perMethod = 10;
+
+    private boolean failWhenExceeded = false;
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        StatementInspector inspector = sql -> {
+            StatementCounter.count(sql);
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> statementBudgetFilter(MeterRegistry meterRegistry) {
+        OncePerRequestFilter filter = new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                            FilterChain filterChain) throws ServletException, IOException {
+                String name = request.getMethod() + " " + request.getRequestURI();
+                try (StatementCounter.Scope scope = StatementCounter.open(name, perRequest, failWhenExceeded)) {
+                    try {
+                        filterChain.doFilter(request, response);
+                    } finally {
+                        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                        DistributionSummary.builder("jdbc.statements.request")
+                                .description("SQL queries run by an HTTP request")
+                                .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                                .register(meterRegistry)
+                                .record(scope.getCount());
+                    }
+                }
+            }
+        };
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(filter);
+        // Before the security filters, which load the user on login
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public ServiceStatementBudgetAspect serviceStatementBudgetAspect(MeterRegistry meterRegistry) {
+        return new ServiceStatementBudgetAspect(meterRegistry);
+    }
+
+    @Aspect
+    public class ServiceStatementBudgetAspect {
+
+        private final MeterRegistry meterRegistry;
+
+        ServiceStatementBudgetAspect(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+        }
+
+        // within() lets AspectJ rule out every other bean by its type, instead of matching each of its methods
+        @Around("within(com.jovine360.online_resume_builder.services..*) "
+                + "&& execution(public * com.jovine360.online_resume_builder.services.*Service.*(..))")
+        public Object count(ProceedingJoinPoint joinPoint) throws Throwable {
+            String name = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+            try (StatementCounter.Scope scope = StatementCounter.open(name, perMethod, failWhenExceeded)) {
+                try {
+                    return joinPoint.proceed();
+                } finally {
+                    DistributionSummary.builder("jdbc.statements.method")
+                            .description("SQL queries run by a service call")
+                            .tag("method", name)
+                            .register(meterRegistry)
+                            .record(scope.getCount());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Counts the SQL queries Hibernate prepares on the current thread.
+ * <p>
+ * Only {@code select} statements count: N+1 loading shows up as queries, while inserts, updates
+ * and deletes legitimately grow with the number of rows written, which identity ids keep unbatched.
+ * <p>
+ * Counting happens within scopes, such as an HTTP request or a service call. Scopes nest, and a
+ * statement counts towards every scope open on the thread. A scope over its budget is logged when
+ * it closes, or fails the statement that exceeds the budget if it was opened with {@code fail}.
+ */
+@Slf4j
+public final class StatementCounter {
+
+    private static final ThreadLocal<Deque<Scope>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private StatementCounter() {
+    }
+
+    /**
+     * Start counting on the current thread
+     *
+     * @param name Identifies the scope in logs and errors
+     * @param budget Statements allowed in the scope
+     * @param fail Whether exceeding the budget throws instead of logging a warning
+     * @return The scope, to be closed on the same thread
+     */
+    public static Scope open(String name, int budget, boolean fail) {
+        Scope scope = new Scope(name, budget, fail);
+        SCOPES.get().push(scope);
+        return scope;
+    }
+
+    static void count(String sql) {
+        if (!isQuery(sql)) {
+            return;
+        }
+        for (Scope scope : SCOPES.get()) {
+            scope.count++;
+            if (scope.fail && scope.count > scope.budget) {
+                throw new StatementBudgetExceededException(scope.name + " exceeded its budget of "
+                        + scope.budget + " queries with: " + sql);
+            }
+        }
+    }
+
+    private static boolean isQuery(String sql) {
+        String statement = sql.stripLeading();
+        return statement.regionMatches(true, 0, "select", 0, 6)
+                || statement.regionMatches(true, 0, "with", 0, 4);
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final String name;
+        private final int budget;
+        private final boolean fail;
+        private int count;
+
+        private Scope(String name, int budget, boolean fail) {
+            this.name = name;
+            this.budget = budget;
+            this.fail = fail;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() {
+            SCOPES.get().remove(this);
+            if (count > budget && !fail) {
+                log.warn("{} ran {} SQL queries, over its budget of {}", name, count, budget);
+            }
+        }
+    }
+
+    public static class StatementBudgetExceededException extends RuntimeException {
+        public StatementBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
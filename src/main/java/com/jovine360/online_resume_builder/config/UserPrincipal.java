@@ -0,0 +1,25 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * The authenticated user, carrying the id and name of the account so that requests can scope
+ * their queries to the user without loading it again.
+ */
+@Getter
+public class UserPrincipal extends User {
+
+    private final Long id;
+    private final String fullName;
+
+    public UserPrincipal(Long id, String username, String password, String fullName,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.id = id;
+        this.fullName = fullName;
+    }
+}
@@ -0,0 +1,27 @@
+package com.jovine360.online_resume_builder.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "warm-up")
+@Data
+public class WarmUpConfiguration {
+
+    // Render the PDF templates and request the pages before the application reports ready
+    private boolean enabled = false;
+
+    // Renders of each PDF template and requests of each page; the first loads the classes, the rest feed the JIT
+    private int iterations = 5;
+
+    // Pages requested through the local web server; they must be reachable without login
+    private List<String> pages = new ArrayList<>(List.of("/login", "/register"));
+
+    // Report ready after this long even if the warm-up is not done
+    private Duration timeout = Duration.ofMinutes(2);
+}
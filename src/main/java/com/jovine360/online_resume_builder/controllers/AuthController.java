@@ -2,15 +2,10 @@ package com.jovine360.online_resume_builder.controllers;
 
 import com.jovine360.online_resume_builder.models.User;
 import com.jovine360.online_resume_builder.services.UserService;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -22,7 +17,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class AuthController {
     
     private final UserService userService;
-    private final AuthenticationManager authenticationManager;
 
     @GetMapping({"/", ""})
     public String welcome() {
@@ -114,36 +108,6 @@ public class AuthController {
         }
     }
     
-    @PostMapping("/manual-login")
-    public String manualLogin(@RequestParam String username,
-                             @RequestParam String password,
-                             HttpServletRequest request,
-                             RedirectAttributes redirectAttributes) {
-        
-        try {
-            // Create authentication token
-            UsernamePasswordAuthenticationToken authToken = 
-                    new UsernamePasswordAuthenticationToken(username, password);
-            
-            // Add details from the request
-            authToken.setDetails(new WebAuthenticationDetails(request));
-            
-            // Authenticate
-            Authentication authentication = authenticationManager.authenticate(authToken);
-            
-            // Set the authentication in the security context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            
-            // Redirect to dashboard
-            return "redirect:/dashboard";
-            
-        } catch (AuthenticationException e) {
-            // Authentication failed
-            redirectAttributes.addAttribute("error", "true");
-            return "redirect:/login";
-        }
-    }
-    
     @GetMapping("/access-denied")
     public String accessDenied() {
         return "auth/access-denied";
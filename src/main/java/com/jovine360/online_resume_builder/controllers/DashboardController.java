@@ -1,35 +1,49 @@
 // DashboardController.java
 package com.jovine360.online_resume_builder.controllers;
 
-import com.jovine360.online_resume_builder.models.Resume;
-import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.models.ResumeSummary;
 import com.jovine360.online_resume_builder.services.ResumeService;
-import com.jovine360.online_resume_builder.services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
 public class DashboardController {
     
-    private final UserService userService;
     private final ResumeService resumeService;
     
+    private static final int PAGE_SIZE = 24;
+    
     @GetMapping("/dashboard")
     @PreAuthorize("isAuthenticated()")
-    public String dashboard(Model model, Authentication authentication) {
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+    public String dashboard(@RequestParam(required = false)
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                            @RequestParam(required = false) Long beforeId,
+                            Model model, @AuthenticationPrincipal UserPrincipal principal) {
+        // One extra row tells whether there is another page
+        List<ResumeSummary> resumes = resumeService.findSummariesByUserId(
+                principal.getId(), before, beforeId, PAGE_SIZE + 1);
+        boolean hasMore = resumes.size() > PAGE_SIZE;
+        if (hasMore) {
+            resumes = resumes.subList(0, PAGE_SIZE);
+        }
         
-        List<Resume> resumes = resumeService.findAllByUser(user);
-        model.addAttribute("user", user);
+        // The principal carries the id and name, so the user isn't loaded again
+        model.addAttribute("user", principal);
         model.addAttribute("resumes", resumes);
+        model.addAttribute("totalResumes", resumeService.countByUserId(principal.getId()));
+        model.addAttribute("firstPage", before == null || beforeId == null);
+        model.addAttribute("nextPage", hasMore ? resumes.get(resumes.size() - 1) : null);
         
         return "dashboard/index";
     }
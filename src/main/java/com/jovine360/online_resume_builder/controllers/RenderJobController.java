@@ -0,0 +1,113 @@
+// RenderJobController.java
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import com.jovine360.online_resume_builder.services.impl.PdfRenderJobService;
+import com.jovine360.online_resume_builder.services.impl.PdfRenderJobService.RenderJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/resumes")
+@RequiredArgsConstructor
+public class RenderJobController {
+
+    private final PdfRenderJobService renderJobService;
+    private final ResumeService resumeService;
+
+    @PostMapping("/{id}/render-jobs")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> submitRenderJob(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "default") String template,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        // Only resumes of the authenticated user are found
+        if (resumeService.findByIdAndUserId(id, principal.getId()).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<RenderJob> job = renderJobService.submit(id, principal.getId(), template);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(renderJobService.estimateRetryAfter().toSeconds()))
+                    .build();
+        }
+
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl(job.get())))
+                .body(describe(job.get()));
+    }
+
+    @GetMapping("/render-jobs/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> getRenderJob(@PathVariable String jobId,
+                                                            @AuthenticationPrincipal UserPrincipal principal) {
+        return renderJobService.findJob(jobId, principal.getId())
+                .map(job -> ResponseEntity.ok(describe(job)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/render-jobs/{jobId}/result")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getRenderJobResult(@PathVariable String jobId,
+                                                     @AuthenticationPrincipal UserPrincipal principal) {
+        Optional<RenderJob> job = renderJobService.findJob(jobId, principal.getId());
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.get().getStatus() == PdfRenderJobService.Status.DOWNLOADED) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        if (job.get().getStatus() != PdfRenderJobService.Status.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        // The PDF is handed out once and then dropped from memory
+        Optional<byte[]> result = renderJobService.takeResult(job.get());
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "resume-" + job.get().getResumeId() + ".pdf");
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(result.get());
+    }
+
+    private Map<String, Object> describe(RenderJob job) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("jobId", job.getId());
+        body.put("resumeId", job.getResumeId());
+        body.put("template", job.getTemplate());
+        body.put("status", job.getStatus());
+        body.put("submittedAt", job.getSubmittedAt());
+        body.put("finishedAt", job.getFinishedAt());
+        body.put("statusUrl", statusUrl(job));
+        if (job.getStatus() == PdfRenderJobService.Status.COMPLETED) {
+            body.put("resultUrl", statusUrl(job) + "/result");
+        }
+        if (job.getError() != null) {
+            body.put("error", job.getError());
+        }
+        return body;
+    }
+
+    private String statusUrl(RenderJob job) {
+        return "/resumes/render-jobs/" + job.getId();
+    }
+}
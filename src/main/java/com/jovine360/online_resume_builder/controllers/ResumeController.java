@@ -1,10 +1,12 @@
 // ResumeController.java
 package com.jovine360.online_resume_builder.controllers;
 
+import com.jovine360.online_resume_builder.config.UserPrincipal;
 import com.jovine360.online_resume_builder.models.*;
 import com.jovine360.online_resume_builder.services.ResumeService;
-import com.jovine360.online_resume_builder.services.UserService;
 import com.jovine360.online_resume_builder.services.impl.PDFService;
+import com.jovine360.online_resume_builder.services.impl.PdfExportService;
+import com.jovine360.online_resume_builder.services.impl.ResumeValidators;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
@@ -12,22 +14,34 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.util.List;
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 
 @Controller
 @RequestMapping("/resumes")
 @RequiredArgsConstructor
 public class ResumeController {
+
+    private static final String PDF_DOWNLOAD = ResumeController.class.getName() + ".PDF_DOWNLOAD";
     
     private final ResumeService resumeService;
-    private final UserService userService;
     private final PDFService pdfService;
+    private final PdfExportService pdfExportService;
+    private final ResumeValidators resumeValidators;
     
     @GetMapping("/create")
     @PreAuthorize("isAuthenticated()")
@@ -39,15 +53,12 @@ public class ResumeController {
     @PostMapping("/create")
     @PreAuthorize("isAuthenticated()")
     public String createResume(@Valid @ModelAttribute("resume") Resume resume,
-                              BindingResult result, Authentication authentication) {
+                              BindingResult result, @AuthenticationPrincipal UserPrincipal principal) {
         if (result.hasErrors()) {
             return "resumes/create";
         }
         
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        
-        resumeService.createResume(resume, user.getId());
+        resumeService.createResume(resume, principal.getId());
         return "redirect:/dashboard";
     }
     
@@ -55,46 +66,52 @@ public class ResumeController {
     @PreAuthorize("isAuthenticated()")
     public String viewResume(@PathVariable Long id, 
                             @RequestParam(required = false) String template,
-                            Model model, Authentication authentication) {
-        Resume resume = resumeService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
+                            Model model, @AuthenticationPrincipal UserPrincipal principal,
+                            ServletWebRequest request) {
+        // If a specific template is requested, use that template
+        String view = template != null && !template.isEmpty() ? "resumes/resume-template" : "resumes/view";
         
-        // Ensure that the authenticated user owns this resume
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+        // Unchanged resumes are answered with 304 before they are loaded
+        String variant = resumeValidators.pageVariant(request, view, template);
+        if (resumeValidators.checkNotModified(request, id, principal.getId(), variant)) {
+            return null;
+        }
         
-        if (!resume.getUser().getId().equals(user.getId())) {
+        // Only resumes of the authenticated user are found
+        Optional<Resume> resume = resumeService.findByIdWithDetailsAndUserId(id, principal.getId());
+        if (resume.isEmpty()) {
             return "redirect:/dashboard";
         }
-        
-        model.addAttribute("resume", resume);
-        
-        // If a specific template is requested, use that template
-        if (template != null && !template.isEmpty()) {
-            return "resumes/resume-template";
+        if (resumeValidators.checkNotModified(request, resume.get(), variant)) {
+            return null;
         }
         
-        // Default view
-        return "resumes/view";
+        model.addAttribute("resume", resume.get());
+        return view;
     }
     
     @GetMapping("/{id}/preview")
     @PreAuthorize("isAuthenticated()")
     public String previewResume(@PathVariable Long id, 
                                @RequestParam(required = false, defaultValue = "default") String template,
-                               Model model, Authentication authentication) {
-        Resume resume = resumeService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
-        
-        // Ensure that the authenticated user owns this resume
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+                               Model model, @AuthenticationPrincipal UserPrincipal principal,
+                               ServletWebRequest request) {
+        // Unchanged resumes are answered with 304 before they are loaded
+        String variant = resumeValidators.pageVariant(request, "resumes/resume-template", template);
+        if (resumeValidators.checkNotModified(request, id, principal.getId(), variant)) {
+            return null;
+        }
         
-        if (!resume.getUser().getId().equals(user.getId())) {
+        // Only resumes of the authenticated user are found
+        Optional<Resume> resume = resumeService.findByIdWithDetailsAndUserId(id, principal.getId());
+        if (resume.isEmpty()) {
             return "redirect:/dashboard";
         }
+        if (resumeValidators.checkNotModified(request, resume.get(), variant)) {
+            return null;
+        }
         
-        model.addAttribute("resume", resume);
+        model.addAttribute("resume", resume.get());
         model.addAttribute("templateName", template);
         
         return "resumes/resume-template";
@@ -102,19 +119,14 @@ public class ResumeController {
     
     @GetMapping("/{id}/edit")
     @PreAuthorize("isAuthenticated()")
-    public String editResumeForm(@PathVariable Long id, Model model, Authentication authentication) {
-        Resume resume = resumeService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
-        
-        // Ensure that the authenticated user owns this resume
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        
-        if (!resume.getUser().getId().equals(user.getId())) {
+    public String editResumeForm(@PathVariable Long id, Model model, @AuthenticationPrincipal UserPrincipal principal) {
+        // Only resumes of the authenticated user are found
+        Optional<Resume> resume = resumeService.findByIdAndUserId(id, principal.getId());
+        if (resume.isEmpty()) {
             return "redirect:/dashboard";
         }
         
-        model.addAttribute("resume", resume);
+        model.addAttribute("resume", resume.get());
         return "resumes/edit";
     }
     
@@ -122,24 +134,18 @@ public class ResumeController {
     @PreAuthorize("isAuthenticated()")
     public String updateResume(@PathVariable Long id,
                               @Valid @ModelAttribute("resume") Resume resume,
-                              BindingResult result, Authentication authentication) {
+                              BindingResult result, @AuthenticationPrincipal UserPrincipal principal) {
         if (result.hasErrors()) {
             return "resumes/edit";
         }
         
         // Ensure that the authenticated user owns this resume
-        Resume existingResume = resumeService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
-        
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        
-        if (!existingResume.getUser().getId().equals(user.getId())) {
+        if (resumeService.findByIdAndUserId(id, principal.getId()).isEmpty()) {
             return "redirect:/dashboard";
         }
         
+        // Only the changes are written; the owner and timestamps stay as persisted
         resume.setId(id);
-        resume.setUser(user);
         resumeService.updateResume(resume);
         
         return "redirect:/resumes/" + id;
@@ -147,15 +153,10 @@ public class ResumeController {
     
     @GetMapping("/{id}/delete")
     @PreAuthorize("isAuthenticated()")
-    public String deleteResume(@PathVariable Long id, Authentication authentication) {
-        Resume resume = resumeService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
-        
-        // Ensure that the authenticated user owns this resume
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        
-        if (!resume.getUser().getId().equals(user.getId())) {
+    public String deleteResume(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        // Only resumes of the authenticated user are found
+        Optional<Resume> resume = resumeService.findByIdAndUserId(id, principal.getId());
+        if (resume.isEmpty()) {
             return "redirect:/dashboard";
         }
         
@@ -165,38 +166,86 @@ public class ResumeController {
     
     @GetMapping("/{id}/download")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<byte[]> downloadResumePDF(
+    public ResponseEntity<StreamingResponseBody> downloadResumePDF(
             @PathVariable Long id, 
             @RequestParam(required = false, defaultValue = "default") String template,
-            Authentication authentication) {
+            @AuthenticationPrincipal UserPrincipal principal,
+            ServletWebRequest request) {
         try {
-            Resume resume = resumeService.findById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
-            
-            // Ensure that the authenticated user owns this resume
-            User user = userService.findByUsername(authentication.getName())
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
+            // Unchanged resumes are answered with 304 before they are loaded or rendered
+            String variant = resumeValidators.pdfVariant("default");
+            if (resumeValidators.checkNotModified(request, id, principal.getId(), variant)) {
+                return null;
+            }
             
-            if (!resume.getUser().getId().equals(user.getId())) {
+            // Only resumes of the authenticated user are found
+            Resume resume = resumeService.findByIdWithDetailsAndUserId(id, principal.getId())
+                    .orElse(null);
+            if (resume == null) {
                 return ResponseEntity.badRequest().build();
             }
+            if (resumeValidators.checkNotModified(request, resume, variant)) {
+                return null;
+            }
             
             // Pass the template parameter to the PDF service
-//            byte[] pdfBytes = pdfService.generatePDF(resume, template);
-            byte[] pdfBytes = pdfService.generatePDF(resume);
+//            PDFService.PreparedPdf pdf = pdfService.preparePDF(resume, template);
+            // Layout happens here so render failures still get an error status
+            PDFService.PreparedPdf pdf = pdfService.preparePDF(resume, "default");
+            try {
+                // The body may never run, e.g. when the request times out or the client goes away
+                // before it is started, so the renderer is also released when the request completes
+                WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(PDF_DOWNLOAD,
+                        new CallableProcessingInterceptor() {
+                            @Override
+                            public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                                pdf.close();
+                            }
+                        });
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", resume.getTitle() + ".pdf");
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_PDF);
+                headers.setContentDispositionFormData("attachment", resume.getTitle() + ".pdf");
+                if (pdf.contentLength() >= 0) {
+                    headers.setContentLength(pdf.contentLength());
+                }
+
+                // Stream the PDF straight to the response instead of buffering it
+                StreamingResponseBody body = outputStream -> {
+                    try (pdf) {
+                        pdf.writeTo(outputStream);
+                    }
+                };
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(body);
+            } catch (RuntimeException e) {
+                pdf.close();
+                throw e;
+            }
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
     
+    @GetMapping("/export")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> exportResumes(
+            @RequestParam(required = false, defaultValue = "default") List<String> templates,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        List<Long> resumeIds = resumeService.findIdsByUserId(principal.getId());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "resumes.zip");
+
+        // PDFs are rendered in parallel and streamed into the archive as they finish
+        StreamingResponseBody body = outputStream -> pdfExportService.export(resumeIds, templates, outputStream);
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+    
     @GetMapping("/templates")
     @PreAuthorize("isAuthenticated()")
     public String viewTemplates(Model model) {
@@ -230,24 +279,50 @@ public class ResumeController {
     
     @GetMapping("/{id}/share")
     @PreAuthorize("isAuthenticated()")
-    public String getShareableLink(@PathVariable Long id, Model model, Authentication authentication) {
-        Resume resume = resumeService.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
+    public String getShareableLink(@PathVariable Long id, Model model, @AuthenticationPrincipal UserPrincipal principal) {
+        // Only resumes of the authenticated user are found
+        Optional<Resume> resume = resumeService.findByIdAndUserId(id, principal.getId());
+        if (resume.isEmpty()) {
+            return "redirect:/dashboard";
+        }
         
-        // Ensure that the authenticated user owns this resume
-        User user = userService.findByUsername(authentication.getName())
-                .orElseThrow(() -> new IllegalStateException("User not found"));
+        // Only shared resumes have a link, see shareResume
+        String token = resume.get().getShareToken();
+        if (token != null) {
+            String shareableLink = ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/resumes/shared/{token}")
+                    .buildAndExpand(token)
+                    .toUriString();
+            model.addAttribute("shareableLink", shareableLink);
+        }
+        model.addAttribute("resume", resume.get());
         
-        if (!resume.getUser().getId().equals(user.getId())) {
+        return "resumes/share";
+    }
+    
+    @PostMapping("/{id}/share")
+    @PreAuthorize("isAuthenticated()")
+    public String shareResume(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        // Ensure that the authenticated user owns this resume
+        if (resumeService.findByIdAndUserId(id, principal.getId()).isEmpty()) {
             return "redirect:/dashboard";
         }
         
-        // Generate a shareable link (this could be a token-based URL in a real app)
-        String shareableLink = "/resumes/shared/" + id;
-        model.addAttribute("shareableLink", shareableLink);
-        model.addAttribute("resume", resume);
+        // A new link also revokes the previous one
+        resumeService.shareResume(id);
+        return "redirect:/resumes/" + id + "/share";
+    }
+    
+    @PostMapping("/{id}/share/revoke")
+    @PreAuthorize("isAuthenticated()")
+    public String unshareResume(@PathVariable Long id, @AuthenticationPrincipal UserPrincipal principal) {
+        // Ensure that the authenticated user owns this resume
+        if (resumeService.findByIdAndUserId(id, principal.getId()).isEmpty()) {
+            return "redirect:/dashboard";
+        }
         
-        return "resumes/share";
+        resumeService.unshareResume(id);
+        return "redirect:/resumes/" + id + "/share";
     }
 
     @GetMapping("/preview/{templateId}")
@@ -0,0 +1,36 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.services.impl.ResumeImportService;
+import com.jovine360.online_resume_builder.services.impl.ResumeImportService.ImportReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/resumes")
+@RequiredArgsConstructor
+public class ResumeImportController {
+
+    private final ResumeImportService importService;
+
+    @PostMapping("/import")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ImportReport> importResumes(@RequestParam("file") MultipartFile file,
+                                                      @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // The upload is parsed as it is read, not loaded whole
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(importService.importJsonResumes(inputStream, principal.getId()));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.services.impl.ResumeSearchService;
+import com.jovine360.online_resume_builder.services.impl.ResumeSearchService.SearchHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class ResumeSearchController {
+
+    private final ResumeSearchService searchService;
+
+    @GetMapping("/resumes/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> search(@RequestParam("q") String query,
+                                                      @RequestParam(defaultValue = "0") int limit,
+                                                      @AuthenticationPrincipal UserPrincipal principal) {
+        // Only resumes of the authenticated user are searched
+        return ResponseEntity.ok(describe(query, searchService.search(query, principal.getId(), limit), false));
+    }
+
+    @GetMapping("/admin/resumes/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> searchAll(@RequestParam("q") String query,
+                                                         @RequestParam(defaultValue = "0") int limit) {
+        return ResponseEntity.ok(describe(query, searchService.search(query, null, limit), true));
+    }
+
+    private Map<String, Object> describe(String query, List<SearchHit> hits, boolean withOwner) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("query", query);
+        // False while the startup rebuild is still indexing resumes
+        body.put("complete", searchService.isReady());
+        body.put("results", hits.stream().map(hit -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("resumeId", hit.resumeId());
+            if (withOwner) {
+                result.put("userId", hit.userId());
+            }
+            result.put("title", hit.title());
+            result.put("score", hit.score());
+            result.put("url", "/resumes/" + hit.resumeId());
+            return result;
+        }).toList());
+        return body;
+    }
+}
@@ -0,0 +1,83 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.SharedResumeConfiguration;
+import com.jovine360.online_resume_builder.services.impl.SharedResumeService;
+import com.jovine360.online_resume_builder.services.impl.SharedResumeService.Snapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Public, read-only links to shared resumes. Requests bypass Spring Security, see
+ * {@link com.jovine360.online_resume_builder.config.SecurityConfiguration}, and are answered from
+ * the snapshots of {@link SharedResumeService}.
+ */
+@Controller
+@RequestMapping("/resumes/shared")
+@RequiredArgsConstructor
+@Slf4j
+public class SharedResumeController {
+
+    private static final MediaType TEXT_HTML_UTF8 = new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8);
+
+    private final SharedResumeService sharedResumeService;
+    private final SharedResumeConfiguration sharedResumeConfiguration;
+
+    @GetMapping("/{token}")
+    public ResponseEntity<byte[]> viewSharedResume(@PathVariable String token) {
+        Optional<Snapshot> snapshot = sharedResumeService.find(token);
+        if (snapshot.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        // A matching If-None-Match is answered with 304 by Spring MVC
+        return ok(snapshot.get().eTag())
+                .contentType(TEXT_HTML_UTF8)
+                .body(snapshot.get().html());
+    }
+
+    @GetMapping("/{token}/pdf")
+    public ResponseEntity<byte[]> downloadSharedResume(@PathVariable String token) {
+        if (!sharedResumeConfiguration.isPdfEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            Optional<Snapshot> snapshot = sharedResumeService.findWithPdf(token);
+            if (snapshot.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            
+            return ok(snapshot.get().pdfETag())
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(snapshot.get().title() + ".pdf", StandardCharsets.UTF_8)
+                            .build()
+                            .toString())
+                    .body(snapshot.get().pdf());
+        } catch (RuntimeException e) {
+            log.error("Shared PDF could not be rendered", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private static ResponseEntity.BodyBuilder ok(String eTag) {
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                // Revalidated on every use, so a revoked link stops working at once
+                .cacheControl(CacheControl.noCache().cachePublic())
+                // Keep the token out of Referer headers and shared resumes out of search engines
+                .header("Referrer-Policy", "no-referrer")
+                .header("X-Robots-Tag", "noindex");
+    }
+}
@@ -3,6 +3,8 @@ package com.jovine360.online_resume_builder.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.time.LocalDate;
@@ -41,6 +43,7 @@ public class Experience {
     private Resume resume;
     
     @OneToMany(mappedBy = "experience", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Project> projects = new ArrayList<>();
 
@@ -3,6 +3,8 @@ package com.jovine360.online_resume_builder.models;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.time.LocalDateTime;
@@ -11,7 +13,8 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
-@Table(name = "resumes")
+// Serves the dashboard's keyset pagination, see ResumeRepository#findSummariesByUserIdAfter
+@Table(name = "resumes", indexes = @Index(name = "idx_resumes_user_updated", columnList = "user_id, updated_at, id"))
 @Getter
 @Setter
 @ToString
@@ -33,32 +36,44 @@ public class Resume {
     private User user;
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Experience> experiences = new ArrayList<>();
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Education> educations = new ArrayList<>();
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Skill> skills = new ArrayList<>();
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Certification> certifications = new ArrayList<>();
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Language> languages = new ArrayList<>();
     
     @OneToMany(mappedBy = "resume", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Fetch(FetchMode.SUBSELECT)
     @ToString.Exclude
     private List<Hobby> hobbies = new ArrayList<>();
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Unguessable id of the public link, null while the resume isn't shared. Only changed through
+    // ResumeRepository#updateShareToken, so saving an edit never writes back a token revoked meanwhile
+    @Column(unique = true, length = 32, updatable = false)
+    @ToString.Exclude
+    private String shareToken;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,21 @@
+package com.jovine360.online_resume_builder.models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of a resume for listings, holding the resume's own columns and the number of entries
+ * in each section instead of the sections themselves.
+ */
+public record ResumeSummary(
+        Long id,
+        String title,
+        String summary,
+        LocalDateTime updatedAt,
+        int experienceCount,
+        int educationCount,
+        int skillCount,
+        int certificationCount,
+        int languageCount,
+        int hobbyCount
+) {
+}
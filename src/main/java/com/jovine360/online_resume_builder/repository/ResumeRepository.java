@@ -1,12 +1,18 @@
 package com.jovine360.online_resume_builder.repository;
 
 import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.ResumeSummary;
 import com.jovine360.online_resume_builder.models.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,12 +20,65 @@ import java.util.Optional;
 public interface ResumeRepository extends JpaRepository<Resume, Long> {
     List<Resume> findByUserOrderByUpdatedAtDesc(User user);
 
+    String SUMMARY_SELECT = """
+            select new com.jovine360.online_resume_builder.models.ResumeSummary(
+                r.id, r.title, r.summary, r.updatedAt,
+                size(r.experiences), size(r.educations), size(r.skills),
+                size(r.certifications), size(r.languages), size(r.hobbies))
+            from Resume r
+            """;
+
+    // Newest first; the id breaks ties between resumes updated at the same time
+    @Query(SUMMARY_SELECT + """
+            where r.user.id = :userId
+            order by r.updatedAt desc, r.id desc
+            """)
+    List<ResumeSummary> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+    // Keyset page: the resumes after the given one in the order above, without an offset scan
+    @Query(SUMMARY_SELECT + """
+            where r.user.id = :userId
+              and (r.updatedAt < :updatedAt or (r.updatedAt = :updatedAt and r.id < :id))
+            order by r.updatedAt desc, r.id desc
+            """)
+    List<ResumeSummary> findSummariesByUserIdAfter(@Param("userId") Long userId,
+                                                   @Param("updatedAt") LocalDateTime updatedAt,
+                                                   @Param("id") Long id, Limit limit);
+
     Optional<Resume> findByIdAndUser(Long id, User user);
 
-    @Query("SELECT r FROM Resume r LEFT JOIN FETCH r.experiences LEFT JOIN FETCH r.educations LEFT JOIN FETCH r.skills WHERE r.id = :id AND r.user = :user")
-    Optional<Resume> findByIdAndUserWithDetails(@Param("id") Long id, @Param("user") User user);
+    // Ownership is checked in the same query that loads the resume
+    Optional<Resume> findByIdAndUserId(Long id, Long userId);
+
+    // Only the column the conditional GETs compare, with the same ownership check
+    @Query("select r.updatedAt from Resume r where r.id = :id and r.user.id = :userId")
+    Optional<LocalDateTime> findUpdatedAtByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Shared resumes are read from the primary, so a revoked token is never found on a lagging replica
+    @Transactional
+    @Query("select r.id from Resume r where r.shareToken = :token")
+    Optional<Long> findIdByShareToken(@Param("token") String token);
+
+    @Transactional
+    @Query("select r.shareToken from Resume r where r.id = :id")
+    Optional<String> findShareTokenById(@Param("id") Long id);
+
+    // Sharing is not an edit, so this bypasses @PreUpdate and keeps updatedAt
+    @Transactional
+    @Modifying
+    @Query("update Resume r set r.shareToken = :token where r.id = :id")
+    int updateShareToken(@Param("id") Long id, @Param("token") String token);
+
+    // Sections are subselect-fetched on first access, see ResumeAggregateLoader
+    @EntityGraph(attributePaths = "user")
+    Optional<Resume> findWithUserById(Long id);
+
+    // Only the ids, for exports that load each resume on its own; newest first, as listed
+    @Query("select r.id from Resume r where r.user.id = :userId order by r.updatedAt desc, r.id desc")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
 
     long countByUser(User user);
+    long countByUserId(Long userId);
     List<Resume> findAllByUser(User user);
     List<Resume> findAllByUserId(Long userId);
 
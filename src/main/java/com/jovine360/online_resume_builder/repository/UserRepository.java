@@ -1,15 +1,28 @@
 package com.jovine360.online_resume_builder.repository;
 
 import com.jovine360.online_resume_builder.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    /**
+     * Find the user signing in with a username or an email address, in one query. Should one user's
+     * username be another's email address, the username match comes first.
+     */
+    @Query("select u from User u where u.username = :login or u.email = :login "
+            + "order by case when u.username = :login then 0 else 1 end")
+    List<User> findByUsernameOrEmail(@Param("login") String login, Limit limit);
+
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
 }
\ No newline at end of file
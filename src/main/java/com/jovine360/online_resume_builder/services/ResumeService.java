@@ -2,8 +2,10 @@
 package com.jovine360.online_resume_builder.services;
 
 import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.ResumeSummary;
 import com.jovine360.online_resume_builder.models.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,7 +13,16 @@ public interface ResumeService {
     Resume createResume(Resume resume, Long userId);
     Resume updateResume(Resume resume);
     void deleteResume(Long id);
+    String shareResume(Long id);
+    void unshareResume(Long id);
     Optional<Resume> findById(Long id);
+    Optional<Resume> findByIdWithDetails(Long id);
+    Optional<Resume> findByIdAndUserId(Long id, Long userId);
+    Optional<Resume> findByIdWithDetailsAndUserId(Long id, Long userId);
+    Optional<LocalDateTime> findUpdatedAtByIdAndUserId(Long id, Long userId);
     List<Resume> findAllByUser(User user);
     List<Resume> findAllByUserId(Long userId);
+    List<Long> findIdsByUserId(Long userId);
+    List<ResumeSummary> findSummariesByUserId(Long userId, LocalDateTime beforeUpdatedAt, Long beforeId, int limit);
+    long countByUserId(Long userId);
 }
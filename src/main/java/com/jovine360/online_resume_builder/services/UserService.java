@@ -9,6 +9,7 @@ public interface UserService {
     User updateUser(User user);
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+    Optional<User> findByUsernameOrEmail(String login);
     Optional<User> findById(Long id);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
@@ -0,0 +1,161 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.FontConfiguration;
+import com.jovine360.online_resume_builder.config.PdfOutputConfiguration;
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.xhtmlrenderer.pdf.FontFamily;
+import org.xhtmlrenderer.pdf.ITextFontResolver;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the parsed font programs for every PDF template.
+ * <p>
+ * Each TTF listed in {@link FontConfiguration#getTemplates()} is read and parsed exactly once
+ * (at startup when {@code pdf.fonts.preload} is set, otherwise on first use) and the resulting
+ * {@link FontFamily} objects are shared by every renderer. Parsed fonts are read-only once built,
+ * which is the same assumption OpenPDF makes for its own global {@link BaseFont} cache.
+ * <p>
+ * Fonts use the Identity-H encoding so any Unicode text can be shown. With
+ * {@code pdf.output.optimize} set, only the glyphs a document uses are embedded in it; otherwise the
+ * whole font program is embedded in every PDF.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FontRegistry {
+
+    private final FontConfiguration fontConfiguration;
+    private final PdfOutputConfiguration outputConfiguration;
+
+    private final Map<String, Map<String, FontFamily>> templateFamilies = new ConcurrentHashMap<>();
+    private final Map<String, LoadedFont> loadedFonts = new ConcurrentHashMap<>();
+
+    /**
+     * Load statistics for a single font file
+     *
+     * @param file The font file name relative to the font base path
+     * @param retainedBytes Size of the font program kept in memory for embedding
+     * @param loadMillis Time spent reading and parsing the font
+     */
+    public record FontLoadStats(String file, long retainedBytes, double loadMillis) {
+    }
+
+    private record LoadedFont(String path, BaseFont baseFont, FontLoadStats stats) {
+    }
+
+    @PostConstruct
+    public void preload() {
+        if (!fontConfiguration.isEnableCustomFonts() || !fontConfiguration.isPreload()) {
+            return;
+        }
+        long start = System.nanoTime();
+        fontConfiguration.getTemplates().keySet().forEach(this::getFontFamilies);
+        log.info("Preloaded {} fonts for {} templates in {} ms",
+                loadedFonts.size(), templateFamilies.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        getLoadedFonts().forEach(stats -> log.info("Font {}: {} KB retained, parsed in {} ms",
+                stats.file(), stats.retainedBytes() / 1024, String.format("%.2f", stats.loadMillis())));
+    }
+
+    /**
+     * Register the shared fonts of a template on the renderer's font resolver
+     *
+     * @param renderer The ITextRenderer instance
+     * @param template The template name being used
+     * @return true if at least one custom font family was registered
+     */
+    public boolean applyTo(ITextRenderer renderer, String template) {
+        Map<String, FontFamily> families = getFontFamilies(template);
+        if (families.isEmpty()) {
+            return false;
+        }
+        renderer.getFontResolver().getFonts().putAll(families);
+        return true;
+    }
+
+    /**
+     * Get the parsed font families for a template, loading them on first use
+     *
+     * @param template The template name
+     * @return Font families keyed by CSS family name, empty if the template has no usable fonts
+     */
+    public Map<String, FontFamily> getFontFamilies(String template) {
+        if (!fontConfiguration.isEnableCustomFonts() || template == null) {
+            return Collections.emptyMap();
+        }
+        return templateFamilies.computeIfAbsent(template.toLowerCase(), this::buildFontFamilies);
+    }
+
+    /**
+     * @return Load statistics of every font parsed so far, largest first
+     */
+    public List<FontLoadStats> getLoadedFonts() {
+        return loadedFonts.values().stream()
+                .map(LoadedFont::stats)
+                .sorted(Comparator.comparingLong(FontLoadStats::retainedBytes).reversed())
+                .toList();
+    }
+
+    private Map<String, FontFamily> buildFontFamilies(String template) {
+        FontConfiguration.TemplateFonts templateFonts = fontConfiguration.getTemplates().get(template);
+        if (templateFonts == null || templateFonts.getFonts() == null) {
+            templateFonts = fontConfiguration.getTemplates().get("default");
+        }
+        if (templateFonts == null || templateFonts.getFonts() == null) {
+            return Collections.emptyMap();
+        }
+
+        // A throwaway resolver builds the FontFamily/FontDescription objects for us
+        ITextFontResolver resolver = new ITextFontResolver();
+        Map<String, FontFamily> families = new LinkedHashMap<>();
+        for (FontConfiguration.FontDefinition definition : templateFonts.getFonts()) {
+            LoadedFont font = loadedFonts.computeIfAbsent(definition.getFile(), this::loadFont);
+            if (font == null) {
+                continue;
+            }
+            resolver.addFont(font.baseFont(), font.path(), definition.getFamily());
+            families.put(definition.getFamily(), resolver.getFonts().get(definition.getFamily()));
+        }
+        return Collections.unmodifiableMap(families);
+    }
+
+    private LoadedFont loadFont(String file) {
+        String fontPath = fontConfiguration.getFontBasePath() + file;
+        try {
+            ClassPathResource resource = new ClassPathResource(fontPath);
+            if (!resource.exists()) {
+                log.debug("Font file not found: {}", fontPath);
+                return null;
+            }
+
+            long start = System.nanoTime();
+            byte[] program;
+            try (InputStream in = resource.getInputStream()) {
+                program = in.readAllBytes();
+            }
+            String path = resource.getURL().toString();
+            BaseFont baseFont = BaseFont.createFont(path, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, program, null);
+            baseFont.setSubset(outputConfiguration.isOptimize());
+            double loadMillis = (System.nanoTime() - start) / 1_000_000.0;
+
+            return new LoadedFont(path, baseFont, new FontLoadStats(file, program.length, loadMillis));
+        } catch (Exception e) {
+            log.warn("Failed to load font: {}", fontPath, e);
+            return null;
+        }
+    }
+}
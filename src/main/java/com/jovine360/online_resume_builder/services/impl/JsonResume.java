@@ -0,0 +1,213 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.jovine360.online_resume_builder.models.*;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * A resume in the JSON Resume format (https://jsonresume.org/schema), limited to the sections this
+ * application keeps.
+ * <p>
+ * Projects are attached to the work entry named by their {@code entity}; other projects, awards,
+ * publications, volunteering and references have no counterpart and are ignored.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+record JsonResume(
+        Basics basics,
+        List<Work> work,
+        List<EducationEntry> education,
+        List<SkillEntry> skills,
+        List<Certificate> certificates,
+        List<LanguageEntry> languages,
+        List<Interest> interests,
+        List<ProjectEntry> projects
+) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Basics(String name, String label, String summary) {
+    }
+
+    // "company" is the name used by older versions of the schema
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Work(String name, String company, String position, String startDate, String endDate,
+                String summary, List<String> highlights) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record EducationEntry(String institution, String area, String studyType, String startDate,
+                          String endDate, List<String> courses) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SkillEntry(String name, String level) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Certificate(String name, String date, String issuer, String url) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record LanguageEntry(String language, String fluency) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Interest(String name, List<String> keywords) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ProjectEntry(String name, String entity, String description, String url, List<String> keywords) {
+    }
+
+    /**
+     * Map to a new, unsaved resume
+     *
+     * @throws IllegalArgumentException If a date is not in the schema's YYYY[-MM[-DD]] format
+     */
+    Resume toResume() {
+        Resume resume = new Resume();
+        String name = basics == null ? null : blankToNull(basics.name());
+        String label = basics == null ? null : blankToNull(basics.label());
+        resume.setTitle(name != null && label != null ? name + " - " + label : name != null ? name : label);
+        resume.setSummary(basics == null ? null : basics.summary());
+
+        for (Work entry : nonNull(work)) {
+            Experience experience = new Experience();
+            experience.setCompanyName(entry.name() != null ? entry.name() : entry.company());
+            experience.setJobTitle(entry.position());
+            experience.setStartDate(date(entry.startDate()));
+            experience.setEndDate(date(entry.endDate()));
+            // The schema has no flag; an open-ended entry is the current one
+            experience.setCurrentlyWorking(experience.getStartDate() != null && experience.getEndDate() == null);
+            experience.setDescription(lines(entry.summary(), entry.highlights()));
+            experience.setResume(resume);
+            for (ProjectEntry projectEntry : nonNull(projects)) {
+                if (projectEntry.entity() != null && projectEntry.entity().equalsIgnoreCase(experience.getCompanyName())) {
+                    Project project = new Project();
+                    project.setName(projectEntry.name());
+                    project.setDescription(projectEntry.description());
+                    project.setUrl(projectEntry.url());
+                    project.setTechnologies(join(projectEntry.keywords()));
+                    project.setExperience(experience);
+                    experience.getProjects().add(project);
+                }
+            }
+            resume.getExperiences().add(experience);
+        }
+
+        for (EducationEntry entry : nonNull(education)) {
+            Education item = new Education();
+            item.setInstitution(entry.institution());
+            item.setDegree(entry.studyType());
+            item.setFieldOfStudy(entry.area());
+            item.setStartDate(date(entry.startDate()));
+            item.setEndDate(date(entry.endDate()));
+            item.setCurrentlyStudying(item.getStartDate() != null && item.getEndDate() == null);
+            item.setDescription(join(entry.courses()));
+            item.setResume(resume);
+            resume.getEducations().add(item);
+        }
+
+        for (SkillEntry entry : nonNull(skills)) {
+            Skill skill = new Skill();
+            skill.setName(entry.name());
+            skill.setProficiencyLevel(proficiency(entry.level()));
+            skill.setResume(resume);
+            resume.getSkills().add(skill);
+        }
+
+        for (Certificate entry : nonNull(certificates)) {
+            Certification certification = new Certification();
+            certification.setName(entry.name());
+            certification.setIssuingOrganization(entry.issuer());
+            certification.setIssueDate(date(entry.date()));
+            certification.setCredentialUrl(entry.url());
+            certification.setResume(resume);
+            resume.getCertifications().add(certification);
+        }
+
+        for (LanguageEntry entry : nonNull(languages)) {
+            Language language = new Language();
+            language.setName(entry.language());
+            language.setProficiencyLevel(entry.fluency());
+            language.setResume(resume);
+            resume.getLanguages().add(language);
+        }
+
+        for (Interest entry : nonNull(interests)) {
+            Hobby hobby = new Hobby();
+            hobby.setName(entry.name());
+            hobby.setDescription(join(entry.keywords()));
+            hobby.setResume(resume);
+            resume.getHobbies().add(hobby);
+        }
+        return resume;
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list == null ? List.of() : list.stream().filter(Objects::nonNull).toList();
+    }
+
+    private static LocalDate date(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String date = value.trim();
+        // The schema allows a year or a month alone
+        if (date.length() == 4) {
+            date += "-01-01";
+        } else if (date.length() == 7) {
+            date += "-01";
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date: " + value);
+        }
+    }
+
+    // Skill proficiency is stored on a 1-5 scale
+    private static Integer proficiency(String level) {
+        if (level == null || level.isBlank()) {
+            return null;
+        }
+        String value = level.trim().toLowerCase(Locale.ROOT);
+        if (value.matches("\\d+")) {
+            return Math.max(1, Math.min(5, Integer.parseInt(value)));
+        }
+        return switch (value) {
+            case "beginner", "basic" -> 1;
+            case "novice", "elementary" -> 2;
+            case "intermediate" -> 3;
+            case "advanced" -> 4;
+            case "expert", "master" -> 5;
+            default -> null;
+        };
+    }
+
+    private static String lines(String first, List<String> rest) {
+        List<String> lines = new ArrayList<>();
+        if (first != null && !first.isBlank()) {
+            lines.add(first);
+        }
+        nonNull(rest).forEach(line -> lines.add("- " + line));
+        return lines.isEmpty() ? null : String.join("\n", lines);
+    }
+
+    private static String join(List<String> values) {
+        String joined = nonNull(values).stream()
+                .filter(value -> !value.isBlank())
+                .collect(Collectors.joining(", "));
+        return joined.isEmpty() ? null : joined;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -1,24 +1,83 @@
 package com.jovine360.online_resume_builder.services.impl;
 
+import com.jovine360.online_resume_builder.config.PdfOutputConfiguration;
+import com.jovine360.online_resume_builder.config.PdfRenderThreadConfiguration;
+import com.jovine360.online_resume_builder.config.PdfTemplateConfiguration;
+import com.jovine360.online_resume_builder.config.RendererPoolConfiguration;
 import com.jovine360.online_resume_builder.models.Resume;
+import com.lowagie.text.DocumentException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.thymeleaf.templateresolver.AbstractConfigurableTemplateResolver;
+import org.w3c.dom.Document;
+import org.xhtmlrenderer.pdf.DefaultPDFCreationListener;
 import org.xhtmlrenderer.pdf.ITextRenderer;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PDFService {
     
+    static final List<String> TEMPLATES = List.of("default", "modern", "professional", "creative", "minimal");
+    
     private final TemplateEngine templateEngine;
+    private final FontRegistry fontRegistry;
+    private final PdfCache pdfCache;
+    private final RendererPoolConfiguration rendererPoolConfiguration;
+    private final PdfTemplateConfiguration pdfTemplateConfiguration;
+    private final PdfOutputConfiguration pdfOutputConfiguration;
+    private final PdfRenderThreadConfiguration pdfRenderThreadConfiguration;
+    private final MeterRegistry meterRegistry;
+    
+    private final XhtmlParser xhtmlParser = new XhtmlParser();
+    
+    private RendererPool rendererPool;
+    private RenderMetrics renderMetrics;
+    private RenderThreads renderThreads;
+    private String templateBaseUrl;
+    
+    @PostConstruct
+    public void init() throws IOException {
+        // Template stylesheets are linked relative to the templates, so the renderer resolves them by
+        // absolute URI and its stylesheet cache keeps the parsed rules for every later render
+        templateBaseUrl = new ClassPathResource("templates/pdf/resume-template.html").getURL().toExternalForm();
+
+        // Only resume data changes between renders, so keep the parsed template skeletons
+        if (pdfTemplateConfiguration.isCache()) {
+            templateEngine.getTemplateResolvers().stream()
+                    .filter(AbstractConfigurableTemplateResolver.class::isInstance)
+                    .map(AbstractConfigurableTemplateResolver.class::cast)
+                    .forEach(resolver -> resolver.getCacheablePatternSpec().addPattern("pdf/*"));
+        }
+
+        renderMetrics = new RenderMetrics(meterRegistry);
+        rendererPool = new RendererPool(rendererPoolConfiguration, meterRegistry, this::createRenderer);
+        if (rendererPoolConfiguration.isEnabled()) {
+            rendererPool.warmUp(TEMPLATES);
+        }
+        renderThreads = new RenderThreads(pdfRenderThreadConfiguration, meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderThreads.shutdown();
+    }
     
     /**
      * Generate a PDF using the default template
@@ -35,42 +94,82 @@ public class PDFService {
      * @return PDF document as byte array
      */
     public byte[] generatePDF(Resume resume, String template) {
+        if (renderThreads.shouldOffload()) {
+            return offload(() -> generatePDF(resume, template));
+        }
+        try (PreparedPdf pdf = preparePDF(resume, template)) {
+            return pdf.toByteArray();
+        } catch (Exception e) {
+            log.error("Error generating PDF for template: {}", template, e);
+            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Prepare a PDF for streaming using the specified template.
+     * <p>
+     * Template processing and layout happen here, so a broken resume or template fails before any
+     * byte reaches the client. Only the PDF write is left to {@link PreparedPdf#writeTo}. Called on
+     * a virtual thread, the PDF is rendered and written on a render thread and held in memory.
+     *
+     * @param resume The resume data
+     * @param template The template name to use
+     * @return A PDF ready to be written, which must be closed once written
+     */
+    public PreparedPdf preparePDF(Resume resume, String template) {
+        if (renderThreads.shouldOffload()) {
+            // Lay out and write in one go, so no renderer is held until the caller writes
+            String requested = template;
+            return offload(() -> new CachedPdf(generatePDF(resume, requested)));
+        }
         try {
             // Validate template name to prevent path traversal attacks
             if (template == null || template.isEmpty() || template.contains("/") || template.contains("\\")) {
                 template = "default";
             }
 
+            // Serve unchanged resumes from the rendered PDF cache
+            String templateKey = resolveTemplateKey(template);
+            String cacheKey = pdfCache.keyFor(resume, templateKey);
+            Optional<byte[]> cached = pdfCache.get(cacheKey);
+            if (cached.isPresent()) {
+                return new CachedPdf(cached.get());
+            }
+
             // Set up context with resume data
             Context context = new Context();
             context.setVariable("resume", resume);
             context.setVariable("templateName", template);
 
             // Determine the template path based on the template parameter
-            String templatePath = switch (template.toLowerCase()) {
-                case "modern" -> "pdf/resume-template-modern";
-                case "professional" -> "pdf/resume-template-professional";
-                case "creative" -> "pdf/resume-template-creative";
-                case "minimal" -> "pdf/resume-template-minimal";
-                default -> "pdf/resume-template";
-            };
+            String templatePath = "default".equals(templateKey)
+                    ? "pdf/resume-template"
+                    : "pdf/resume-template-" + templateKey;
 
             // Process the template with the context
+            long start = System.nanoTime();
             String html = templateEngine.process(templatePath, context);
+            renderMetrics.recordPhase(RenderMetrics.TEMPLATE, templateKey, start);
 
-            // Render the HTML to PDF
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ITextRenderer renderer = new ITextRenderer();
-            renderer.setDocumentFromString(html);
-
-            // Set up fonts and styles
-            setupRendererStyles(renderer, template);
+            start = System.nanoTime();
+            Document document = xhtmlParser.parse(html);
+            renderMetrics.recordPhase(RenderMetrics.PARSE, templateKey, start);
 
-            // Render PDF
-            renderer.layout();
-            renderer.createPDF(outputStream);
+            // Lay out the document; the PDF itself is written later
+            ITextRenderer renderer = borrowRenderer(templateKey);
+            try {
+                start = System.nanoTime();
+                renderer.setDocument(document, templateBaseUrl);
+                renderMetrics.recordPhase(RenderMetrics.DOCUMENT, templateKey, start);
 
-            return outputStream.toByteArray();
+                start = System.nanoTime();
+                renderer.layout();
+                renderMetrics.recordPhase(RenderMetrics.LAYOUT, templateKey, start);
+            } catch (RuntimeException e) {
+                releaseRenderer(templateKey, renderer, false);
+                throw e;
+            }
+            return new LaidOutPdf(renderer, templateKey, cacheKey);
         } catch (Exception e) {
             log.error("Error generating PDF for template: {}", template, e);
             throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
@@ -78,224 +177,288 @@ public class PDFService {
     }
 
     /**
-     * Configure the renderer with appropriate styles and fonts based on the template
-     * 
-     * @param renderer The ITextRenderer instance
-     * @param template The template name being used
+     * A PDF that is ready to be written
      */
-    private void setupRendererStyles(ITextRenderer renderer, String template) {
-        try {
-            switch (template.toLowerCase()) {
-                case "creative":
-                    setupCreativeTemplateFonts(renderer);
-                    break;
-                case "modern":
-                    setupModernTemplateFonts(renderer);
-                    break;
-                case "professional":
-                    setupProfessionalTemplateFonts(renderer);
-                    break;
-                case "minimal":
-                    setupMinimalTemplateFonts(renderer);
-                    break;
-                default:
-                    setupDefaultTemplateFonts(renderer);
-                    break;
+    public interface PreparedPdf extends AutoCloseable {
+
+        /**
+         * @return The PDF size in bytes, or -1 if it is only known once written
+         */
+        long contentLength();
+
+        /**
+         * Write the PDF to the stream, leaving the stream open
+         */
+        void writeTo(OutputStream outputStream) throws IOException;
+
+        /**
+         * Write the PDF into a byte array
+         */
+        byte[] toByteArray() throws IOException;
+
+        /**
+         * Release the resources held for writing the PDF. Safe to call from another thread: a write
+         * in progress releases them itself once it ends, and a later write fails.
+         */
+        @Override
+        void close();
+    }
+
+    private record CachedPdf(byte[] pdf) implements PreparedPdf {
+
+        @Override
+        public long contentLength() {
+            return pdf.length;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            outputStream.write(pdf);
+        }
+
+        @Override
+        public byte[] toByteArray() {
+            return pdf;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private class LaidOutPdf implements PreparedPdf {
+        private final ITextRenderer renderer;
+        private final String templateKey;
+        private final String cacheKey;
+        private boolean written;
+        private boolean succeeded;
+        private boolean released;
+
+        LaidOutPdf(ITextRenderer renderer, String templateKey, String cacheKey) {
+            this.renderer = renderer;
+            this.templateKey = templateKey;
+            this.cacheKey = cacheKey;
+        }
+
+        @Override
+        public long contentLength() {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            // Keep a bounded copy for the cache while the PDF streams out
+            CacheCopyOutputStream copy = cacheKey != null
+                    ? new CacheCopyOutputStream(outputStream, pdfCache.getMaxEntryBytes())
+                    : null;
+            write(StreamUtils.nonClosing(copy != null ? copy : outputStream));
+            if (copy != null && copy.isComplete()) {
+                pdfCache.put(cacheKey, copy.toByteArray());
+            }
+        }
+
+        @Override
+        public byte[] toByteArray() throws IOException {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            write(outputStream);
+            byte[] pdf = outputStream.toByteArray();
+            pdfCache.put(cacheKey, pdf);
+            return pdf;
+        }
+
+        private void write(OutputStream outputStream) throws IOException {
+            synchronized (this) {
+                if (written) {
+                    throw new IllegalStateException("PDF has already been written");
+                }
+                if (released) {
+                    throw new IOException("PDF was closed before it was written");
+                }
+                written = true;
+            }
+            try {
+                long start = System.nanoTime();
+                CountingOutputStream counting = new CountingOutputStream(outputStream);
+                renderer.createPDF(counting);
+                succeeded = true;
+                renderMetrics.recordPhase(RenderMetrics.WRITE, templateKey, start);
+                renderMetrics.recordOutput(templateKey, counting.getCount(),
+                        renderer.getRootBox().getLayer().getPages().size());
+            } catch (DocumentException e) {
+                throw new IOException("Error writing PDF: " + e.getMessage(), e);
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!written) {
+                release();
+            }
+        }
+
+        private synchronized void release() {
+            if (!released) {
+                released = true;
+                // A renderer that was laid out but never written is still reusable
+                releaseRenderer(templateKey, renderer, !written || succeeded);
             }
-            
-            // Common configurations for all templates
-            setupCommonStyles(renderer);
-            
-        } catch (Exception e) {
-            log.warn("Could not load custom fonts for template: {}. Using default fonts.", template, e);
-            setupFallbackFonts(renderer);
         }
     }
-    
+
     /**
-     * Setup fonts specifically for the creative template
+     * Passes bytes through while keeping a copy until the copy grows past a limit
      */
-    private void setupCreativeTemplateFonts(ITextRenderer renderer) throws Exception {
-        // Add modern, stylistic fonts for creative template
-        
-        // Try to load Open Sans for body text
-        try {
-            ClassPathResource openSansRegular = new ClassPathResource("static/fonts/OpenSans-Regular.ttf");
-            if (openSansRegular.exists()) {
-                renderer.getFontResolver().addFont(
-                    openSansRegular.getURL().toString(), 
-                    "OpenSans", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
+    private static class CacheCopyOutputStream extends FilterOutputStream {
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CacheCopyOutputStream(OutputStream out, long limit) {
+            super(out);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkLimit();
             }
-        } catch (Exception e) {
-            log.debug("OpenSans font not found, using fallback");
         }
-        
-        // Try to load Montserrat for headings
-        try {
-            ClassPathResource montserratBold = new ClassPathResource("static/fonts/Montserrat-Bold.ttf");
-            if (montserratBold.exists()) {
-                renderer.getFontResolver().addFont(
-                    montserratBold.getURL().toString(), 
-                    "Montserrat", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkLimit();
             }
-        } catch (Exception e) {
-            log.debug("Montserrat font not found, using fallback");
         }
-        
-        // Try to load Poppins for accent text
-        try {
-            ClassPathResource poppinsLight = new ClassPathResource("static/fonts/Poppins-Light.ttf");
-            if (poppinsLight.exists()) {
-                renderer.getFontResolver().addFont(
-                    poppinsLight.getURL().toString(), 
-                    "Poppins", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
+
+        private void checkLimit() {
+            if (copy.size() > limit) {
+                copy = null;
             }
-        } catch (Exception e) {
-            log.debug("Poppins font not found, using fallback");
+        }
+
+        boolean isComplete() {
+            return copy != null;
+        }
+
+        byte[] toByteArray() {
+            return copy.toByteArray();
         }
     }
-    
+
     /**
-     * Setup fonts for the modern template
+     * Counts the bytes passed through
      */
-    private void setupModernTemplateFonts(ITextRenderer renderer) throws Exception {
-        // Load Roboto family for modern look
-        try {
-            ClassPathResource robotoRegular = new ClassPathResource("static/fonts/Roboto-Regular.ttf");
-            ClassPathResource robotoBold = new ClassPathResource("static/fonts/Roboto-Bold.ttf");
-            
-            if (robotoRegular.exists()) {
-                renderer.getFontResolver().addFont(
-                    robotoRegular.getURL().toString(), 
-                    "Roboto", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
-            
-            if (robotoBold.exists()) {
-                renderer.getFontResolver().addFont(
-                    robotoBold.getURL().toString(), 
-                    "Roboto-Bold", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
-        } catch (Exception e) {
-            log.debug("Roboto fonts not found, using fallback");
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
         }
     }
-    
+
     /**
-     * Setup fonts for the professional template
+     * Compresses the whole PDF structure, not just page content
      */
-    private void setupProfessionalTemplateFonts(ITextRenderer renderer) throws Exception {
-        // Load serif fonts for professional appearance
-        try {
-            ClassPathResource sourceSerifRegular = new ClassPathResource("static/fonts/SourceSerif4-Regular.ttf");
-            ClassPathResource sourceSerifBold = new ClassPathResource("static/fonts/SourceSerif4-Bold.ttf");
-            
-            if (sourceSerifRegular.exists()) {
-                renderer.getFontResolver().addFont(
-                    sourceSerifRegular.getURL().toString(), 
-                    "SourceSerif", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
-            
-            if (sourceSerifBold.exists()) {
-                renderer.getFontResolver().addFont(
-                    sourceSerifBold.getURL().toString(), 
-                    "SourceSerif-Bold", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
-        } catch (Exception e) {
-            log.debug("Source Serif fonts not found, using fallback");
+    private static class OutputOptimizer extends DefaultPDFCreationListener {
+        private final int compressionLevel;
+
+        OutputOptimizer(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+        }
+
+        @Override
+        public void preOpen(ITextRenderer renderer) {
+            // Object and cross-reference streams; raises the PDF version to 1.5
+            renderer.getWriter().setFullCompression();
+            renderer.getWriter().setCompressionLevel(compressionLevel);
         }
     }
-    
+
     /**
-     * Setup fonts for the minimal template
+     * Run a render on a render thread, for callers on virtual threads
      */
-    private void setupMinimalTemplateFonts(ITextRenderer renderer) throws Exception {
-        // Load clean, minimal fonts
+    private <T> T offload(Callable<T> render) {
         try {
-            ClassPathResource interRegular = new ClassPathResource("static/fonts/Inter-Regular.ttf");
-            ClassPathResource interMedium = new ClassPathResource("static/fonts/Inter-Medium.ttf");
-            
-            if (interRegular.exists()) {
-                renderer.getFontResolver().addFont(
-                    interRegular.getURL().toString(), 
-                    "Inter", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
-            
-            if (interMedium.exists()) {
-                renderer.getFontResolver().addFont(
-                    interMedium.getURL().toString(), 
-                    "Inter-Medium", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
-        } catch (Exception e) {
-            log.debug("Inter fonts not found, using fallback");
+            return renderThreads.call(render);
+        } catch (IOException e) {
+            throw new RuntimeException("Error generating PDF: " + e.getMessage(), e);
         }
     }
-    
+
+    private ITextRenderer borrowRenderer(String templateKey) throws InterruptedException {
+        return rendererPoolConfiguration.isEnabled() ? rendererPool.borrow(templateKey) : createRenderer(templateKey);
+    }
+
+    private void releaseRenderer(String templateKey, ITextRenderer renderer, boolean reusable) {
+        if (rendererPoolConfiguration.isEnabled()) {
+            rendererPool.release(templateKey, renderer, reusable);
+        }
+    }
+
     /**
-     * Setup fonts for the default template
+     * Map a requested template name onto one of the known PDF templates
+     */
+    private String resolveTemplateKey(String template) {
+        String key = template.toLowerCase();
+        return TEMPLATES.contains(key) ? key : "default";
+    }
+
+    /**
+     * Create a renderer with the fonts and styles of the given template
+     */
+    private ITextRenderer createRenderer(String templateKey) {
+        long start = System.nanoTime();
+        ITextRenderer renderer = new ITextRenderer();
+        setupRendererStyles(renderer, templateKey);
+        renderMetrics.recordPhase(RenderMetrics.FONTS, templateKey, start);
+        if (pdfOutputConfiguration.isOptimize()) {
+            renderer.setListener(new OutputOptimizer(pdfOutputConfiguration.getCompressionLevel()));
+        }
+        return renderer;
+    }
+
+    /**
+     * Configure the renderer with appropriate styles and fonts based on the template
+     * 
+     * @param renderer The ITextRenderer instance
+     * @param template The template name being used
      */
-    private void setupDefaultTemplateFonts(ITextRenderer renderer) throws Exception {
-        // Load standard professional fonts
+    private void setupRendererStyles(ITextRenderer renderer, String template) {
         try {
-            ClassPathResource latoRegular = new ClassPathResource("static/fonts/Lato-Regular.ttf");
-            ClassPathResource latoBold = new ClassPathResource("static/fonts/Lato-Bold.ttf");
-            
-            if (latoRegular.exists()) {
-                renderer.getFontResolver().addFont(
-                    latoRegular.getURL().toString(), 
-                    "Lato", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
+            // Fonts are parsed once by the registry and shared across renders
+            if (!fontRegistry.applyTo(renderer, template)) {
+                log.debug("No custom fonts registered for template: {}", template);
             }
             
-            if (latoBold.exists()) {
-                renderer.getFontResolver().addFont(
-                    latoBold.getURL().toString(), 
-                    "Lato-Bold", 
-                    "UTF-8", 
-                    true, 
-                    null
-                );
-            }
+            // Common configurations for all templates
+            setupCommonStyles(renderer);
+            
         } catch (Exception e) {
-            log.debug("Lato fonts not found, using fallback");
+            log.warn("Could not load custom fonts for template: {}. Using default fonts.", template, e);
+            setupFallbackFonts(renderer);
         }
     }
     
@@ -327,33 +490,4 @@ public class PDFService {
             log.warn("Could not load fallback fonts", e);
         }
     }
-    
-    /**
-     * Load a font from classpath resources
-     * 
-     * @param fontPath Path to the font file in resources
-     * @param fontFamily Font family name to register
-     * @param renderer The ITextRenderer instance
-     */
-    private void loadFontFromResources(String fontPath, String fontFamily, ITextRenderer renderer) {
-        try {
-            ClassPathResource fontResource = new ClassPathResource(fontPath);
-            if (fontResource.exists()) {
-                try (InputStream fontStream = fontResource.getInputStream()) {
-                    renderer.getFontResolver().addFont(
-                        fontResource.getURL().toString(),
-                        fontFamily,
-                        "UTF-8",
-                        true,
-                        null
-                    );
-                    log.debug("Successfully loaded font: {} as {}", fontPath, fontFamily);
-                }
-            } else {
-                log.debug("Font file not found: {}", fontPath);
-            }
-        } catch (Exception e) {
-            log.warn("Failed to load font: {} as {}", fontPath, fontFamily, e);
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,438 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.FontConfiguration;
+import com.jovine360.online_resume_builder.config.PdfCacheConfiguration;
+import com.jovine360.online_resume_builder.config.PdfOutputConfiguration;
+import com.jovine360.online_resume_builder.models.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier cache of rendered PDFs.
+ * <p>
+ * Entries are keyed by the resume id plus a SHA-256 digest of everything a PDF template can show
+ * (the resume aggregate, the template name and a fingerprint of the templates, fonts, output
+ * settings and {@code pdf.cache.version}), so a changed resume or template never hits a stale entry.
+ * The in-memory tier is a size-bounded LRU; entries it evicts are spilled to a size-bounded
+ * directory on disk and promoted back to memory when they are hit again.
+ */
+@Service
+@Slf4j
+public class PdfCache {
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    private final PdfCacheConfiguration configuration;
+    private final FontConfiguration fontConfiguration;
+    private final PdfOutputConfiguration outputConfiguration;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter memoryEvictions;
+    private final Counter diskEvictions;
+    private final Counter invalidations;
+
+    private String templateFingerprint;
+    private FileAttribute<?>[] fileAttributes = new FileAttribute<?>[0];
+
+    public PdfCache(PdfCacheConfiguration configuration, FontConfiguration fontConfiguration,
+                    PdfOutputConfiguration outputConfiguration, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.fontConfiguration = fontConfiguration;
+        this.outputConfiguration = outputConfiguration;
+        this.memoryHits = requests(meterRegistry, "hit", "memory");
+        this.diskHits = requests(meterRegistry, "hit", "disk");
+        this.misses = requests(meterRegistry, "miss", "none");
+        this.memoryEvictions = evictions(meterRegistry, "memory");
+        this.diskEvictions = evictions(meterRegistry, "disk");
+        this.invalidations = Counter.builder("pdf.cache.invalidations")
+                .description("Cached PDFs dropped because their resume changed or was deleted")
+                .register(meterRegistry);
+        Gauge.builder("pdf.cache.size", this, cache -> cache.memoryBytes).tag("tier", "memory")
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pdf.cache.size", this, cache -> cache.diskBytes).tag("tier", "disk")
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("pdf.cache.entries", memory, Map::size).tag("tier", "memory").register(meterRegistry);
+        Gauge.builder("pdf.cache.entries", disk, Map::size).tag("tier", "disk").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        templateFingerprint = computeTemplateFingerprint();
+        if (configuration.isEnabled() && configuration.isDiskEnabled()) {
+            loadDiskIndex();
+        }
+    }
+
+    /**
+     * Compute the cache key of a resume rendered with a template
+     *
+     * @param resume The fully loaded resume
+     * @param template The resolved template name
+     * @return The cache key, or null if the resume cannot be cached
+     */
+    public String keyFor(Resume resume, String template) {
+        if (!configuration.isEnabled() || resume.getId() == null) {
+            return null;
+        }
+        MessageDigest digest = sha256();
+        update(digest, templateFingerprint, template);
+        updateResume(digest, resume);
+        return resume.getId() + "-" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @return A digest of the templates, fonts and output settings every PDF is rendered with
+     */
+    public String getTemplateFingerprint() {
+        return templateFingerprint;
+    }
+
+    /**
+     * @return The size of the largest PDF the cache will store
+     */
+    public long getMaxEntryBytes() {
+        return configuration.getMaxEntrySize().toBytes();
+    }
+
+    /**
+     * Look up a rendered PDF, checking memory first and then disk
+     *
+     * @param key The cache key from {@link #keyFor}, may be null
+     * @return The PDF bytes if cached
+     */
+    public Optional<byte[]> get(String key) {
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        lock.lock();
+        boolean onDisk;
+        try {
+            byte[] pdf = memory.get(key);
+            if (pdf != null) {
+                memoryHits.increment();
+                return Optional.of(pdf);
+            }
+            onDisk = disk.get(key) != null;
+        } finally {
+            lock.unlock();
+        }
+
+        if (onDisk) {
+            try {
+                byte[] pdf = Files.readAllBytes(diskPath(key));
+                diskHits.increment();
+                put(key, pdf);
+                return Optional.of(pdf);
+            } catch (NoSuchFileException e) {
+                removeFromDiskIndex(key);
+            } catch (IOException e) {
+                log.warn("Could not read cached PDF {}", key, e);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Store a rendered PDF in the memory tier, spilling least recently used entries to disk
+     *
+     * @param key The cache key from {@link #keyFor}, may be null
+     * @param pdf The PDF bytes
+     */
+    public void put(String key, byte[] pdf) {
+        if (key == null || pdf.length > configuration.getMaxEntrySize().toBytes()) {
+            return;
+        }
+
+        List<Map.Entry<String, byte[]>> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            byte[] previous = memory.put(key, pdf);
+            memoryBytes += pdf.length - (previous != null ? previous.length : 0);
+
+            Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > configuration.getMemoryMaxSize().toBytes() && eldest.hasNext()) {
+                Map.Entry<String, byte[]> entry = eldest.next();
+                eldest.remove();
+                memoryBytes -= entry.getValue().length;
+                evicted.add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (Map.Entry<String, byte[]> entry : evicted) {
+            memoryEvictions.increment();
+            spillToDisk(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Drop every cached PDF of a resume from both tiers
+     *
+     * @param resumeId The resume id
+     */
+    public void evictResume(Long resumeId) {
+        if (resumeId == null) {
+            return;
+        }
+
+        String prefix = resumeId + "-";
+        List<String> files = new ArrayList<>();
+        int dropped = 0;
+        lock.lock();
+        try {
+            Iterator<Map.Entry<String, byte[]>> memoryEntries = memory.entrySet().iterator();
+            while (memoryEntries.hasNext()) {
+                Map.Entry<String, byte[]> entry = memoryEntries.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    memoryEntries.remove();
+                    memoryBytes -= entry.getValue().length;
+                    dropped++;
+                }
+            }
+            Iterator<Map.Entry<String, Long>> diskEntries = disk.entrySet().iterator();
+            while (diskEntries.hasNext()) {
+                Map.Entry<String, Long> entry = diskEntries.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    diskEntries.remove();
+                    diskBytes -= entry.getValue();
+                    files.add(entry.getKey());
+                    dropped++;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        files.forEach(this::deleteFile);
+        invalidations.increment(dropped);
+    }
+
+    private void spillToDisk(String key, byte[] pdf) {
+        if (!configuration.isDiskEnabled() || pdf.length > configuration.getDiskMaxSize().toBytes()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            if (disk.containsKey(key)) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            Path target = diskPath(key);
+            Path tmp = Files.createTempFile(configuration.getDiskDirectory(), key, ".tmp", fileAttributes);
+            Files.write(tmp, pdf);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not spill cached PDF {} to disk", key, e);
+            return;
+        }
+
+        List<String> evicted = new ArrayList<>();
+        lock.lock();
+        try {
+            Long previous = disk.put(key, (long) pdf.length);
+            diskBytes += pdf.length - (previous != null ? previous : 0);
+
+            Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+            while (diskBytes > configuration.getDiskMaxSize().toBytes() && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                eldest.remove();
+                diskBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        evicted.forEach(evictedKey -> {
+            diskEvictions.increment();
+            deleteFile(evictedKey);
+        });
+    }
+
+    private void loadDiskIndex() throws IOException {
+        Path directory = configuration.getDiskDirectory();
+        // Cached PDFs hold personal data, so only the application's user may list or read them
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+            // Also closes a directory created before, and fails on one owned by another user
+            Files.setPosixFilePermissions(directory, OWNER_ONLY_DIRECTORY);
+            fileAttributes = new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE)};
+        } else {
+            Files.createDirectories(directory);
+        }
+
+        // Entries are content addressed, so files left by a previous run are still valid
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".pdf"))
+                    .sorted(Comparator.comparingLong(file -> file.toFile().lastModified()))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        long size = file.toFile().length();
+                        disk.put(name.substring(0, name.length() - ".pdf".length()), size);
+                        diskBytes += size;
+                    });
+        }
+        log.info("PDF disk cache at {} holds {} entries ({} KB)", directory, disk.size(), diskBytes / 1024);
+    }
+
+    private void removeFromDiskIndex(String key) {
+        lock.lock();
+        try {
+            Long size = disk.remove(key);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(diskPath(key));
+        } catch (IOException e) {
+            log.warn("Could not delete cached PDF {}", key, e);
+        }
+    }
+
+    private Path diskPath(String key) {
+        return configuration.getDiskDirectory().resolve(key + ".pdf");
+    }
+
+    private String computeTemplateFingerprint() throws IOException {
+        MessageDigest digest = sha256();
+        update(digest, configuration.getVersion(), fontConfiguration.getTemplates(),
+                outputConfiguration.isOptimize(), outputConfiguration.getCompressionLevel());
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String pattern : List.of("classpath*:templates/pdf/*.html", "classpath*:templates/pdf/*.css")) {
+            for (Resource template : resolver.getResources(pattern)) {
+                try (InputStream in = template.getInputStream()) {
+                    update(digest, template.getFilename());
+                    digest.update(in.readAllBytes());
+                }
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void updateResume(MessageDigest digest, Resume resume) {
+        update(digest, resume.getId(), resume.getTitle(), resume.getSummary());
+        if (resume.getUser() != null) {
+            update(digest, resume.getUser().getFullName(), resume.getUser().getEmail());
+        }
+
+        update(digest, "experiences", resume.getExperiences().size());
+        for (Experience exp : resume.getExperiences()) {
+            update(digest, exp.getCompanyName(), exp.getJobTitle(), exp.getStartDate(), exp.getEndDate(),
+                    exp.isCurrentlyWorking(), exp.getDescription(), exp.getProjects().size());
+            for (Project project : exp.getProjects()) {
+                update(digest, project.getName(), project.getDescription(), project.getTechnologies(),
+                        project.getUrl());
+            }
+        }
+
+        update(digest, "educations", resume.getEducations().size());
+        for (Education edu : resume.getEducations()) {
+            update(digest, edu.getInstitution(), edu.getDegree(), edu.getFieldOfStudy(), edu.getStartDate(),
+                    edu.getEndDate(), edu.isCurrentlyStudying(), edu.getDescription());
+        }
+
+        update(digest, "skills", resume.getSkills().size());
+        for (Skill skill : resume.getSkills()) {
+            update(digest, skill.getName(), skill.getProficiencyLevel());
+        }
+
+        update(digest, "certifications", resume.getCertifications().size());
+        for (Certification cert : resume.getCertifications()) {
+            update(digest, cert.getName(), cert.getIssuingOrganization(), cert.getIssueDate(),
+                    cert.getExpirationDate(), cert.getCredentialId(), cert.getCredentialUrl());
+        }
+
+        update(digest, "languages", resume.getLanguages().size());
+        for (Language lang : resume.getLanguages()) {
+            update(digest, lang.getName(), lang.getProficiencyLevel());
+        }
+
+        update(digest, "hobbies", resume.getHobbies().size());
+        for (Hobby hobby : resume.getHobbies()) {
+            update(digest, hobby.getName(), hobby.getDescription());
+        }
+    }
+
+    private static void update(MessageDigest digest, Object... values) {
+        for (Object value : values) {
+            // Separators keep ("ab", "c") and ("a", "bc") from producing the same digest
+            digest.update((value == null ? "\u0000N" : "\u0000S" + value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result, String tier) {
+        return Counter.builder("pdf.cache.requests")
+                .description("Rendered PDF cache lookups")
+                .tag("result", result)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String tier) {
+        return Counter.builder("pdf.cache.evictions")
+                .description("Entries evicted from a cache tier to stay within its size bound")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,229 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.PdfExportConfiguration;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports several resumes, optionally in several templates, as one streamed ZIP archive.
+ * <p>
+ * PDFs are rendered in parallel on a worker pool shared by all exports and written to the archive
+ * in completion order, so the archive is never assembled in memory. Each export keeps at most
+ * {@code pdf.export.max-concurrency} renders in flight, which bounds the PDFs waiting to be written.
+ * Once the archive would grow past {@code pdf.export.max-total-size} the remaining entries are left
+ * out and listed in an {@code export-report.txt} entry instead.
+ */
+@Service
+@Slf4j
+public class PdfExportService {
+
+    private static final String REPORT_ENTRY = "export-report.txt";
+
+    private final PdfExportConfiguration configuration;
+    private final PDFService pdfService;
+    private final ResumeService resumeService;
+    private final ExecutorService executor;
+
+    private final Timer exportTimer;
+    private final Counter truncated;
+
+    private record ExportTask(Long resumeId, String template) {
+    }
+
+    private record ExportEntry(String name, byte[] pdf, String error) {
+    }
+
+    public PdfExportService(PdfExportConfiguration configuration, PDFService pdfService,
+                            ResumeService resumeService, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.pdfService = pdfService;
+        this.resumeService = resumeService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(configuration.getMaxConcurrency(),
+                runnable -> new Thread(runnable, "pdf-export-" + threadCount.incrementAndGet()));
+
+        this.exportTimer = Timer.builder("pdf.export.duration")
+                .description("Time spent rendering and streaming a bulk export")
+                .register(meterRegistry);
+        this.truncated = Counter.builder("pdf.export.truncated")
+                .description("Exports that hit the total size cap")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Render resumes and stream them into a ZIP archive
+     *
+     * @param resumeIds The resumes to export, already checked to belong to the user
+     * @param templates The template names to render each resume in
+     * @param outputStream The stream to write the archive to, left open
+     */
+    public void export(Collection<Long> resumeIds, Collection<String> templates,
+                       OutputStream outputStream) throws IOException {
+        Set<String> templateKeys = resolveTemplates(templates);
+        List<ExportTask> tasks = new ArrayList<>();
+        for (Long resumeId : resumeIds) {
+            for (String template : templateKeys) {
+                tasks.add(new ExportTask(resumeId, template));
+            }
+        }
+
+        long start = System.nanoTime();
+        List<String> report = new ArrayList<>();
+        List<Future<ExportEntry>> futures = new ArrayList<>();
+        CompletionService<ExportEntry> completion = new ExecutorCompletionService<>(executor);
+        Iterator<ExportTask> pending = tasks.iterator();
+        long maxTotalBytes = configuration.getMaxTotalSize().toBytes();
+        long totalBytes = 0;
+        int written = 0;
+        int inFlight = 0;
+        boolean limitReached = false;
+
+        try (ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(outputStream))) {
+            while (inFlight < configuration.getMaxConcurrency() && pending.hasNext()) {
+                futures.add(submit(completion, pending.next()));
+                inFlight++;
+            }
+
+            while (inFlight > 0) {
+                ExportEntry entry = take(completion);
+                inFlight--;
+
+                if (entry.error() != null) {
+                    report.add("Failed: " + entry.name() + " (" + entry.error() + ")");
+                } else if (totalBytes + entry.pdf().length > maxTotalBytes) {
+                    limitReached = true;
+                    report.add("Left out: " + entry.name());
+                    break;
+                } else {
+                    writeEntry(zip, entry.name(), entry.pdf());
+                    totalBytes += entry.pdf().length;
+                    written++;
+                }
+
+                if (pending.hasNext()) {
+                    futures.add(submit(completion, pending.next()));
+                    inFlight++;
+                }
+            }
+
+            if (limitReached) {
+                truncated.increment();
+                int skipped = inFlight + (tasks.size() - futures.size());
+                if (skipped > 0) {
+                    report.add("Left out: " + skipped + " more PDF(s)");
+                }
+                report.add("The export is limited to " + configuration.getMaxTotalSize().toMegabytes() + " MB");
+            }
+            if (!report.isEmpty()) {
+                writeEntry(zip, REPORT_ENTRY, String.join("\n", report).getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            // Stop renders nobody is going to read, e.g. after the client went away
+            futures.forEach(future -> future.cancel(true));
+            exportTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        log.debug("Exported {} of {} PDFs ({} KB)", written, tasks.size(), totalBytes / 1024);
+    }
+
+    private Set<String> resolveTemplates(Collection<String> templates) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (templates != null) {
+            for (String template : templates) {
+                if (template != null && PDFService.TEMPLATES.contains(template.toLowerCase())) {
+                    keys.add(template.toLowerCase());
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            keys.add("default");
+        }
+        return keys;
+    }
+
+    private Future<ExportEntry> submit(CompletionService<ExportEntry> completion, ExportTask task) {
+        // Run as the exporting user, so renders read the user's own writes
+        return completion.submit(new DelegatingSecurityContextCallable<>(() -> render(task)));
+    }
+
+    private ExportEntry render(ExportTask task) {
+        String fallbackName = "resume-" + task.resumeId() + "-" + task.template() + ".pdf";
+        try {
+            // The aggregate is fully loaded, so no connection is held while rendering
+            Resume resume = resumeService.findByIdWithDetails(task.resumeId())
+                    .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
+            return new ExportEntry(entryName(resume, task.template()),
+                    pdfService.generatePDF(resume, task.template()), null);
+        } catch (Exception e) {
+            log.warn("Export of resume {} with template {} failed", task.resumeId(), task.template(), e);
+            return new ExportEntry(fallbackName, null, e.getMessage());
+        }
+    }
+
+    private static ExportEntry take(CompletionService<ExportEntry> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            // render() reports its own failures, so this is unexpected
+            throw new IOException("Export failed", e.getCause());
+        }
+    }
+
+    private static String entryName(Resume resume, String template) {
+        String title = resume.getTitle() == null ? "" : resume.getTitle()
+                .replaceAll("[^A-Za-z0-9._-]+", "-")
+                .replaceAll("^-+|-+$", "");
+        return (title.isEmpty() ? "resume" : title) + "-" + resume.getId() + "-" + template + ".pdf";
+    }
+
+    private static void writeEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        // PDF streams are already compressed, so store entries instead of deflating them again
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(content.length);
+        entry.setCompressedSize(content.length);
+        entry.setCrc(crc.getValue());
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
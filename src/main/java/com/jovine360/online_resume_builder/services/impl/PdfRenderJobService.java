@@ -0,0 +1,276 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.PdfRenderJobConfiguration;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders PDFs on a bounded worker pool instead of the request thread.
+ * <p>
+ * Jobs are queued up to {@code pdf.render-jobs.queue-capacity}; beyond that {@link #submit} refuses
+ * the job so the caller can ask the client to retry later. Finished jobs keep their PDF until it is
+ * downloaded or for {@code pdf.render-jobs.result-ttl}. The jobs kept are bounded in number, per
+ * user and in total PDF size; the oldest finished jobs are dropped first to make room.
+ */
+@Service
+@Slf4j
+public class PdfRenderJobService {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, DOWNLOADED
+    }
+
+    @Getter
+    public static class RenderJob {
+        private final String id = UUID.randomUUID().toString();
+        private final Long resumeId;
+        private final Long userId;
+        private final String template;
+        private final Instant submittedAt = Instant.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        // Handed out once through takeResult
+        @Getter(AccessLevel.NONE)
+        private volatile byte[] result;
+
+        RenderJob(Long resumeId, Long userId, String template) {
+            this.resumeId = resumeId;
+            this.userId = userId;
+            this.template = template;
+        }
+    }
+
+    private final PdfRenderJobConfiguration configuration;
+    private final PDFService pdfService;
+    private final ResumeService resumeService;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService purger;
+    private final Map<String, RenderJob> jobs = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private long resultBytes;
+
+    private final Timer waitTimer;
+    private final Timer renderTimer;
+    private final Counter rejected;
+    private final Counter failed;
+
+    public PdfRenderJobService(PdfRenderJobConfiguration configuration, PDFService pdfService,
+                               ResumeService resumeService, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.pdfService = pdfService;
+        this.resumeService = resumeService;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(configuration.getWorkers(), configuration.getWorkers(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(configuration.getQueueCapacity()),
+                runnable -> new Thread(runnable, "pdf-render-job-" + threadCount.incrementAndGet()));
+
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pdf-render-job-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long purgeMillis = configuration.getPurgeInterval().toMillis();
+        purger.scheduleWithFixedDelay(this::purgeExpiredJobs, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+
+        this.waitTimer = Timer.builder("pdf.render.jobs.wait")
+                .description("Time render jobs spend queued before a worker picks them up")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("pdf.render.jobs.render")
+                .description("Time render jobs spend rendering")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("pdf.render.jobs.rejected")
+                .description("Render jobs refused because the queue or the job limits were full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("pdf.render.jobs.failed")
+                .description("Render jobs that ended with an error")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.jobs.queue.depth", executor, e -> e.getQueue().size())
+                .description("Render jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.jobs.kept", jobs, Map::size)
+                .description("Render jobs kept for polling, queued, running or finished")
+                .register(meterRegistry);
+        Gauge.builder("pdf.render.jobs.results.size", this, PdfRenderJobService::getResultBytes)
+                .description("Total size of the PDFs kept for download")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a PDF render of a resume
+     *
+     * @param resumeId The resume to render, already checked to belong to the user
+     * @param userId The user the job belongs to
+     * @param template The template name to use
+     * @return The queued job, or empty if the queue or the job limits are full
+     */
+    public synchronized Optional<RenderJob> submit(Long resumeId, Long userId, String template) {
+        purgeExpiredJobs();
+
+        // Downloaded and failed jobs hold no PDF, so only the others count against the user
+        long userJobs = jobs.values().stream()
+                .filter(job -> job.getUserId().equals(userId))
+                .filter(job -> job.getStatus() != Status.DOWNLOADED && job.getStatus() != Status.FAILED)
+                .count();
+        if (userJobs >= configuration.getMaxJobsPerUser()
+                || (jobs.size() >= configuration.getMaxJobs() && !evictOldestFinished(null))) {
+            rejected.increment();
+            return Optional.empty();
+        }
+
+        RenderJob job = new RenderJob(resumeId, userId, template);
+        jobs.put(job.getId(), job);
+        try {
+            // Run as the submitting user, so the job reads the user's own writes
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(job)));
+            return Optional.of(job);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rejected.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Hand out the PDF of a completed job once; it is dropped from memory afterwards
+     *
+     * @param job A job of the user, see {@link #findJob}
+     * @return The PDF, or empty if the job isn't completed or its PDF was already downloaded
+     */
+    public synchronized Optional<byte[]> takeResult(RenderJob job) {
+        byte[] result = job.result;
+        if (job.getStatus() != Status.COMPLETED || result == null) {
+            return Optional.empty();
+        }
+        job.result = null;
+        job.status = Status.DOWNLOADED;
+        resultBytes -= result.length;
+        return Optional.of(result);
+    }
+
+    /**
+     * Find a job of the given user
+     *
+     * @param jobId The job id
+     * @param userId The user asking for the job
+     * @return The job if it exists and belongs to the user
+     */
+    public Optional<RenderJob> findJob(String jobId, Long userId) {
+        return Optional.ofNullable(jobs.get(jobId))
+                .filter(job -> job.getUserId().equals(userId));
+    }
+
+    /**
+     * @return How long a rejected client should wait before retrying
+     */
+    public Duration estimateRetryAfter() {
+        double meanRenderMillis = renderTimer.mean(TimeUnit.MILLISECONDS);
+        if (meanRenderMillis <= 0) {
+            return configuration.getRetryAfter();
+        }
+        double drainMillis = meanRenderMillis * executor.getQueue().size() / configuration.getWorkers();
+        return Duration.ofSeconds(Math.max(1, (long) Math.ceil(drainMillis / 1000)));
+    }
+
+    private void run(RenderJob job) {
+        waitTimer.record(Duration.between(job.getSubmittedAt(), Instant.now()));
+        job.status = Status.RUNNING;
+        long start = System.nanoTime();
+        try {
+            // The aggregate is fully loaded, so no connection is held while rendering
+            Resume resume = resumeService.findByIdWithDetails(job.getResumeId())
+                    .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
+            keepResult(job, pdfService.generatePDF(resume, job.getTemplate()));
+        } catch (Exception e) {
+            log.warn("Render job {} for resume {} failed", job.getId(), job.getResumeId(), e);
+            job.error = e.getMessage();
+            job.status = Status.FAILED;
+            job.finishedAt = Instant.now();
+            failed.increment();
+        } finally {
+            renderTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private synchronized void keepResult(RenderJob job, byte[] result) {
+        job.result = result;
+        job.status = Status.COMPLETED;
+        job.finishedAt = Instant.now();
+        resultBytes += result.length;
+        while (resultBytes > configuration.getMaxResultSize().toBytes() && evictOldestFinished(job)) {
+            // Older PDFs make room for the new one
+        }
+    }
+
+    /**
+     * Drop the finished job that finished first
+     *
+     * @param keep A job that must not be dropped, may be null
+     * @return Whether a job was dropped
+     */
+    private boolean evictOldestFinished(RenderJob keep) {
+        Optional<RenderJob> oldest = jobs.values().stream()
+                .filter(job -> job != keep && job.getFinishedAt() != null)
+                .min(Comparator.comparing(RenderJob::getFinishedAt));
+        oldest.ifPresent(this::remove);
+        return oldest.isPresent();
+    }
+
+    private void remove(RenderJob job) {
+        jobs.remove(job.getId());
+        byte[] result = job.result;
+        if (result != null) {
+            job.result = null;
+            resultBytes -= result.length;
+        }
+    }
+
+    synchronized void purgeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(configuration.getResultTtl());
+        jobs.values().stream()
+                .filter(job -> job.getFinishedAt() != null && job.getFinishedAt().isBefore(cutoff))
+                .toList()
+                .forEach(this::remove);
+    }
+
+    synchronized long getResultBytes() {
+        return resultBytes;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdownNow();
+        executor.shutdownNow();
+    }
+}
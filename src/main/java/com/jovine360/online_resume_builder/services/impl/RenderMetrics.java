@@ -0,0 +1,79 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the PDF render path.
+ * <p>
+ * {@code pdf.render.phase} times each render phase per template and publishes a percentile
+ * histogram, so p50/p99 per phase can be computed across instances with Prometheus'
+ * {@code histogram_quantile} on {@code /actuator/prometheus}:
+ * <ul>
+ *     <li>{@code template} - Thymeleaf template processing</li>
+ *     <li>{@code parse} - XHTML parsing</li>
+ *     <li>{@code fonts} - font and style setup of a new renderer (pooled renderers skip it)</li>
+ *     <li>{@code document} - handing the document to the renderer, including stylesheet resolution</li>
+ *     <li>{@code layout} - box layout and pagination</li>
+ *     <li>{@code write} - PDF output, including font subsetting and compression</li>
+ * </ul>
+ * {@code pdf.output.size} and {@code pdf.output.pages} record the size and page count of every
+ * generated PDF per template.
+ */
+class RenderMetrics {
+
+    static final String TEMPLATE = "template";
+    static final String PARSE = "parse";
+    static final String FONTS = "fonts";
+    static final String DOCUMENT = "document";
+    static final String LAYOUT = "layout";
+    static final String WRITE = "write";
+
+    private final MeterRegistry meterRegistry;
+
+    RenderMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record the duration of a render phase
+     *
+     * @param phase The phase name
+     * @param template The template key
+     * @param startNanos {@link System#nanoTime()} at the start of the phase
+     */
+    void recordPhase(String phase, String template, long startNanos) {
+        Timer.builder("pdf.render.phase")
+                .description("Time spent in each phase of a PDF render")
+                .tag("phase", phase)
+                .tag("template", template)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a generated PDF
+     *
+     * @param template The template key
+     * @param bytes The PDF size
+     * @param pages The number of pages
+     */
+    void recordOutput(String template, long bytes, int pages) {
+        DistributionSummary.builder("pdf.output.size")
+                .description("Size of generated PDFs")
+                .baseUnit("bytes")
+                .tag("template", template)
+                .register(meterRegistry)
+                .record(bytes);
+        DistributionSummary.builder("pdf.output.pages")
+                .description("Page count of generated PDFs")
+                .baseUnit("pages")
+                .tag("template", template)
+                .register(meterRegistry)
+                .record(pages);
+    }
+}
@@ -0,0 +1,125 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.PdfRenderThreadConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of platform threads for renders started on virtual threads.
+ * <p>
+ * A virtual thread only gives up its carrier when it blocks, so a render of several hundred
+ * milliseconds of CPU would keep a carrier from every other request, and a monitor held by Flying
+ * Saucer or OpenPDF pins it on Java 21. Renders called from a virtual thread therefore run here,
+ * one per core, while the virtual thread waits for the result without holding a carrier. Calls
+ * from platform threads, such as the export and render job workers, run where they are.
+ */
+class RenderThreads {
+
+    // Thread.isVirtual() only exists from Java 21 on; before that no thread is virtual
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+
+    RenderThreads(PdfRenderThreadConfiguration configuration, MeterRegistry meterRegistry) {
+        if (configuration.isEnabled() && IS_VIRTUAL != null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(configuration.getSize(), configuration.getSize(),
+                    0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    runnable -> new Thread(runnable, "pdf-render-" + threadCount.incrementAndGet()));
+            Gauge.builder("pdf.render.threads.queued", executor, pool -> pool.getQueue().size())
+                    .description("Renders from virtual threads waiting for a render thread")
+                    .register(meterRegistry);
+        } else {
+            this.executor = null;
+        }
+        this.waitTimer = Timer.builder("pdf.render.threads.wait")
+                .description("Time renders from virtual threads waited for a render thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return Whether calls from the current thread should go through {@link #call}
+     */
+    boolean shouldOffload() {
+        return executor != null && isVirtual(Thread.currentThread());
+    }
+
+    /**
+     * Run a render on a render thread and wait for its result
+     *
+     * @param task The render
+     * @return The result of the render
+     * @throws IOException If the render failed with one, or the caller was interrupted
+     */
+    <T> T call(Callable<T> task) throws IOException {
+        long submitted = System.nanoTime();
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a render");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.RendererPoolConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.w3c.dom.Document;
+import org.xhtmlrenderer.pdf.ITextRenderer;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Bounded per-template pool of configured {@link ITextRenderer} instances.
+ * <p>
+ * A renderer is handed to one thread at a time. Renderers keep their font resolver, font cache,
+ * parsed template stylesheets and shared context settings between uses; the document and layout
+ * state are dropped on release.
+ * A renderer whose render failed is discarded instead of being returned to the pool.
+ */
+@Slf4j
+class RendererPool {
+
+    private final RendererPoolConfiguration configuration;
+    private final MeterRegistry meterRegistry;
+    private final Function<String, ITextRenderer> rendererFactory;
+    private final Map<String, TemplatePool> pools = new ConcurrentHashMap<>();
+
+    RendererPool(RendererPoolConfiguration configuration, MeterRegistry meterRegistry,
+                 Function<String, ITextRenderer> rendererFactory) {
+        this.configuration = configuration;
+        this.meterRegistry = meterRegistry;
+        this.rendererFactory = rendererFactory;
+    }
+
+    /**
+     * Create the configured number of idle renderers for each template
+     *
+     * @param templates The template names to warm
+     */
+    void warmUp(Collection<String> templates) {
+        for (String template : templates) {
+            TemplatePool pool = pool(template);
+            while (pool.created.get() < configuration.getMinIdle()) {
+                pool.idle.offer(pool.create());
+            }
+        }
+        log.info("Warmed PDF renderer pool with {} renderer(s) for each of {} templates",
+                configuration.getMinIdle(), templates.size());
+    }
+
+    /**
+     * Borrow a renderer for the given template, waiting up to the configured borrow timeout
+     *
+     * @param template The template name
+     * @return A configured renderer that must be passed back to {@link #release}
+     * @throws IllegalStateException if no renderer became available in time
+     */
+    ITextRenderer borrow(String template) throws InterruptedException {
+        TemplatePool pool = pool(template);
+        long start = System.nanoTime();
+        if (!pool.permits.tryAcquire(configuration.getBorrowTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+            pool.exhausted.increment();
+            throw new IllegalStateException("No PDF renderer available for template: " + template);
+        }
+        pool.borrowWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        try {
+            ITextRenderer renderer = pool.idle.poll();
+            return renderer != null ? renderer : pool.create();
+        } catch (RuntimeException e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Return a renderer to its pool
+     *
+     * @param template The template name the renderer was borrowed for
+     * @param renderer The renderer
+     * @param reusable false if the render failed and the renderer should be discarded
+     */
+    void release(String template, ITextRenderer renderer, boolean reusable) {
+        TemplatePool pool = pool(template);
+        try {
+            if (reusable && reset(renderer)) {
+                pool.idle.offer(renderer);
+            } else {
+                pool.created.decrementAndGet();
+                pool.discarded.increment();
+            }
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    private boolean reset(ITextRenderer renderer) {
+        try {
+            // Drop the DOM and box tree of the last render so an idle renderer stays small
+            renderer.setDocument(emptyDocument(), null);
+            return true;
+        } catch (Exception e) {
+            log.debug("Could not reset PDF renderer, discarding it", e);
+            return false;
+        }
+    }
+
+    private static Document emptyDocument() throws ParserConfigurationException {
+        Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+        document.appendChild(document.createElement("html"));
+        return document;
+    }
+
+    private TemplatePool pool(String template) {
+        return pools.computeIfAbsent(template, TemplatePool::new);
+    }
+
+    private class TemplatePool {
+        private final String template;
+        private final BlockingQueue<ITextRenderer> idle = new LinkedBlockingQueue<>();
+        private final Semaphore permits = new Semaphore(configuration.getMaxSize(), true);
+        private final AtomicInteger created = new AtomicInteger();
+        private final Counter exhausted;
+        private final Counter discarded;
+        private final Timer borrowWait;
+
+        TemplatePool(String template) {
+            this.template = template;
+            this.exhausted = Counter.builder("pdf.renderer.pool.exhausted")
+                    .description("Borrow attempts that timed out waiting for a renderer")
+                    .tag("template", template)
+                    .register(meterRegistry);
+            this.discarded = Counter.builder("pdf.renderer.pool.discarded")
+                    .description("Renderers dropped after a failed render")
+                    .tag("template", template)
+                    .register(meterRegistry);
+            this.borrowWait = Timer.builder("pdf.renderer.pool.borrow.wait")
+                    .description("Time spent waiting to borrow a renderer")
+                    .tag("template", template)
+                    .register(meterRegistry);
+            Gauge.builder("pdf.renderer.pool.idle", idle, BlockingQueue::size)
+                    .tag("template", template)
+                    .register(meterRegistry);
+            Gauge.builder("pdf.renderer.pool.active", permits,
+                            p -> configuration.getMaxSize() - p.availablePermits())
+                    .tag("template", template)
+                    .register(meterRegistry);
+        }
+
+        ITextRenderer create() {
+            ITextRenderer renderer = rendererFactory.apply(template);
+            created.incrementAndGet();
+            return renderer;
+        }
+    }
+}
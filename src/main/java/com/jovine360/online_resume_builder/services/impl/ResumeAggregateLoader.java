@@ -0,0 +1,81 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.EntityCacheConfiguration;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.ResumeRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Loads and caches resumes with their owner and every section.
+ * <p>
+ * This is a bean of its own so that every lookup in {@link ResumeServiceImpl} goes through the
+ * cache proxy. Cached resumes are detached and shared between requests, so callers must treat them
+ * as read-only; {@link ResumeServiceImpl} evicts them on update and delete. Their owner is a copy
+ * holding only what views and PDFs show, so no password hash is kept in the cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResumeAggregateLoader {
+
+    private final ResumeRepository resumeRepository;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+
+    /**
+     * Load a resume with its owner and every section, including the projects of each experience.
+     * <p>
+     * The resume and user come in one query and each section collection in one subselect query, so
+     * a resume costs the same eight queries however many entries its sections hold. The sections
+     * are initialized before returning, so the aggregate can be rendered after the transaction.
+     *
+     * @param id The resume id
+     */
+    @Cacheable(cacheNames = EntityCacheConfiguration.RESUMES, key = "#id", unless = "#result == null")
+    @Transactional(readOnly = true)
+    public Optional<Resume> load(Long id) {
+        Optional<Resume> resume = resumeRepository.findWithUserById(id);
+        resume.ifPresent(r -> {
+            Hibernate.initialize(r.getExperiences());
+            // Loads the projects of all experiences at once
+            r.getExperiences().forEach(experience -> Hibernate.initialize(experience.getProjects()));
+            Hibernate.initialize(r.getEducations());
+            Hibernate.initialize(r.getSkills());
+            Hibernate.initialize(r.getCertifications());
+            Hibernate.initialize(r.getLanguages());
+            Hibernate.initialize(r.getHobbies());
+            // Detached first, so the copy is never taken for a change of owner
+            entityManager.detach(r);
+            r.setUser(owner(r.getUser()));
+        });
+        return resume;
+    }
+
+    private static User owner(User user) {
+        User owner = new User();
+        owner.setId(user.getId());
+        owner.setUsername(user.getUsername());
+        owner.setFullName(user.getFullName());
+        owner.setEmail(user.getEmail());
+        return owner;
+    }
+
+    /**
+     * Look up a resume in the cache without loading it on a miss
+     *
+     * @param id The resume id
+     */
+    public Optional<Resume> getCached(Long id) {
+        Cache cache = cacheManager.getCache(EntityCacheConfiguration.RESUMES);
+        return cache == null ? Optional.empty() : Optional.ofNullable(cache.get(id, Resume.class));
+    }
+}
@@ -0,0 +1,365 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jovine360.online_resume_builder.config.ResumeImportConfiguration;
+import com.jovine360.online_resume_builder.models.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Imports resumes in bulk from JSON Resume documents.
+ * <p>
+ * The input is read token by token, so only the current record and the current chunk are held in
+ * memory. It may be a JSON array of resumes, a single resume, or resumes one after another as in
+ * JSON Lines. Records that don't map or validate are reported and skipped. Valid resumes are
+ * written with plain JDBC batches, {@code resume.import.chunk-size} resumes per transaction, which
+ * skips the persistence context and cascades that make saving entities one by one slow. When a
+ * chunk fails, its resumes are written one at a time so that only the offending ones are reported.
+ */
+@Service
+@Slf4j
+public class ResumeImportService {
+
+    public record RecordError(int record, String message) {
+    }
+
+    /**
+     * Outcome of an import; {@code record} numbers count from 1 in input order.
+     */
+    public record ImportReport(int read, int imported, int failed, List<RecordError> errors,
+                               String fatalError, long durationMillis) {
+    }
+
+    private record PendingResume(int record, Resume resume) {
+    }
+
+    @FunctionalInterface
+    private interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    private final ResumeImportConfiguration configuration;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ResumeSearchService searchService;
+
+    private final Counter importedRecords;
+    private final Counter failedRecords;
+    private final Timer importTimer;
+
+    public ResumeImportService(ResumeImportConfiguration configuration, ObjectMapper objectMapper,
+                               Validator validator, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, ResumeSearchService searchService,
+                               MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.searchService = searchService;
+
+        this.importedRecords = Counter.builder("resume.import.records")
+                .description("Resumes read by bulk imports")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        this.failedRecords = Counter.builder("resume.import.records")
+                .description("Resumes read by bulk imports")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.importTimer = Timer.builder("resume.import.duration")
+                .description("Time spent on a bulk import")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Import JSON Resume documents for a user
+     *
+     * @param inputStream The JSON input, left open
+     * @param userId The user that will own the imported resumes
+     * @return The import report
+     */
+    public ImportReport importJsonResumes(InputStream inputStream, Long userId) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<PendingResume> chunk = new ArrayList<>(configuration.getChunkSize());
+
+        try (JsonParser parser = objectMapper.createParser(inputStream)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                int record = ++progress.read;
+                // Reads just this record; the parser is left at its last token
+                JsonNode node = parser.readValueAsTree();
+                Resume resume = map(record, node, progress);
+                if (resume != null) {
+                    chunk.add(new PendingResume(record, resume));
+                    if (chunk.size() >= configuration.getChunkSize()) {
+                        write(chunk, userId, progress);
+                        chunk.clear();
+                    }
+                }
+                token = parser.nextToken();
+            }
+        } catch (JsonProcessingException e) {
+            // Records before the malformed one are still imported
+            progress.fatalError = "Malformed JSON at line " + e.getLocation().getLineNr() + ": " + e.getOriginalMessage();
+        }
+        if (!chunk.isEmpty()) {
+            write(chunk, userId, progress);
+        }
+
+        long durationNanos = System.nanoTime() - start;
+        importTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        log.info("Imported {} of {} resumes for user {} in {} ms ({} failed)", progress.imported, progress.read,
+                userId, TimeUnit.NANOSECONDS.toMillis(durationNanos), progress.failed);
+        // Database errors only surface when their chunk is written
+        progress.errors.sort(Comparator.comparingInt(RecordError::record));
+        return new ImportReport(progress.read, progress.imported, progress.failed, progress.errors,
+                progress.fatalError, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+    }
+
+    private Resume map(int record, JsonNode node, Progress progress) {
+        Resume resume;
+        try {
+            resume = objectMapper.treeToValue(node, JsonResume.class).toResume();
+        } catch (JsonProcessingException e) {
+            progress.fail(record, e.getOriginalMessage());
+            return null;
+        } catch (IllegalArgumentException e) {
+            progress.fail(record, e.getMessage());
+            return null;
+        }
+
+        List<String> violations = new ArrayList<>();
+        validate(violations, "", resume);
+        validate(violations, "work", resume.getExperiences());
+        for (int i = 0; i < resume.getExperiences().size(); i++) {
+            validate(violations, "work[" + i + "].projects", resume.getExperiences().get(i).getProjects());
+        }
+        validate(violations, "education", resume.getEducations());
+        validate(violations, "skills", resume.getSkills());
+        validate(violations, "certificates", resume.getCertifications());
+        validate(violations, "languages", resume.getLanguages());
+        validate(violations, "interests", resume.getHobbies());
+        if (!violations.isEmpty()) {
+            progress.fail(record, String.join("; ", violations));
+            return null;
+        }
+        return resume;
+    }
+
+    private void validate(List<String> violations, String path, List<?> entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            validate(violations, path + "[" + i + "]: ", entries.get(i));
+        }
+    }
+
+    private void validate(List<String> violations, String prefix, Object entry) {
+        for (ConstraintViolation<Object> violation : validator.validate(entry)) {
+            violations.add(prefix + violation.getMessage());
+        }
+    }
+
+    private void write(List<PendingResume> chunk, Long userId, Progress progress) {
+        try {
+            insert(chunk, userId);
+            chunk.forEach(pending -> searchService.index(pending.resume(), userId));
+            progress.imported(chunk.size());
+        } catch (DataAccessException e) {
+            log.debug("Import chunk failed, retrying its resumes one by one", e);
+            for (PendingResume pending : chunk) {
+                try {
+                    insert(List.of(pending), userId);
+                    searchService.index(pending.resume(), userId);
+                    progress.imported(1);
+                } catch (DataAccessException recordFailure) {
+                    progress.fail(pending.record(), recordFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        log.debug("Import progress: {} read, {} imported, {} failed", progress.read, progress.imported, progress.failed);
+    }
+
+    private void insert(List<PendingResume> chunk, Long userId) {
+        List<Resume> resumes = chunk.stream().map(PendingResume::resume).toList();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            insertAll(connection, resumes, userId);
+            return null;
+        }));
+    }
+
+    // Parents first, so their generated ids can be bound as the children's foreign keys
+    private void insertAll(Connection connection, List<Resume> resumes, Long userId) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        batch(connection, "insert into resumes (title, summary, user_id, created_at, updated_at) values (?, ?, ?, ?, ?)",
+                resumes, (statement, resume) -> {
+                    statement.setString(1, resume.getTitle());
+                    statement.setString(2, resume.getSummary());
+                    statement.setLong(3, userId);
+                    statement.setObject(4, now);
+                    statement.setObject(5, now);
+                }, Resume::setId);
+
+        List<Experience> experiences = children(resumes, Resume::getExperiences);
+        batch(connection, "insert into experiences (company_name, job_title, start_date, end_date, currently_working, description, resume_id) values (?, ?, ?, ?, ?, ?, ?)",
+                experiences, (statement, experience) -> {
+                    statement.setString(1, experience.getCompanyName());
+                    statement.setString(2, experience.getJobTitle());
+                    statement.setObject(3, experience.getStartDate());
+                    statement.setObject(4, experience.getEndDate());
+                    statement.setBoolean(5, experience.isCurrentlyWorking());
+                    statement.setString(6, experience.getDescription());
+                    statement.setLong(7, experience.getResume().getId());
+                }, Experience::setId);
+
+        batch(connection, "insert into projects (name, description, technologies, url, experience_id) values (?, ?, ?, ?, ?)",
+                children(experiences, Experience::getProjects), (statement, project) -> {
+                    statement.setString(1, project.getName());
+                    statement.setString(2, project.getDescription());
+                    statement.setString(3, project.getTechnologies());
+                    statement.setString(4, project.getUrl());
+                    statement.setLong(5, project.getExperience().getId());
+                }, null);
+
+        batch(connection, "insert into educations (institution, degree, field_of_study, start_date, end_date, currently_studying, description, resume_id) values (?, ?, ?, ?, ?, ?, ?, ?)",
+                children(resumes, Resume::getEducations), (statement, education) -> {
+                    statement.setString(1, education.getInstitution());
+                    statement.setString(2, education.getDegree());
+                    statement.setString(3, education.getFieldOfStudy());
+                    statement.setObject(4, education.getStartDate());
+                    statement.setObject(5, education.getEndDate());
+                    statement.setBoolean(6, education.isCurrentlyStudying());
+                    statement.setString(7, education.getDescription());
+                    statement.setLong(8, education.getResume().getId());
+                }, null);
+
+        batch(connection, "insert into skills (name, proficiency_level, resume_id) values (?, ?, ?)",
+                children(resumes, Resume::getSkills), (statement, skill) -> {
+                    statement.setString(1, skill.getName());
+                    statement.setObject(2, skill.getProficiencyLevel());
+                    statement.setLong(3, skill.getResume().getId());
+                }, null);
+
+        batch(connection, "insert into certifications (name, issuing_organization, issue_date, expiration_date, credential_id, credential_url, resume_id) values (?, ?, ?, ?, ?, ?, ?)",
+                children(resumes, Resume::getCertifications), (statement, certification) -> {
+                    statement.setString(1, certification.getName());
+                    statement.setString(2, certification.getIssuingOrganization());
+                    statement.setObject(3, certification.getIssueDate());
+                    statement.setObject(4, certification.getExpirationDate());
+                    statement.setString(5, certification.getCredentialId());
+                    statement.setString(6, certification.getCredentialUrl());
+                    statement.setLong(7, certification.getResume().getId());
+                }, null);
+
+        batch(connection, "insert into languages (name, proficiency_level, resume_id) values (?, ?, ?)",
+                children(resumes, Resume::getLanguages), (statement, language) -> {
+                    statement.setString(1, language.getName());
+                    statement.setString(2, language.getProficiencyLevel());
+                    statement.setLong(3, language.getResume().getId());
+                }, null);
+
+        batch(connection, "insert into hobbies (name, description, resume_id) values (?, ?, ?)",
+                children(resumes, Resume::getHobbies), (statement, hobby) -> {
+                    statement.setString(1, hobby.getName());
+                    statement.setString(2, hobby.getDescription());
+                    statement.setLong(3, hobby.getResume().getId());
+                }, null);
+    }
+
+    /**
+     * Insert rows in JDBC batches of {@code resume.import.batch-size}
+     *
+     * @param idSetter Receives the generated id of each row, or null if the ids aren't needed
+     */
+    private <T> void batch(Connection connection, String sql, List<T> rows, RowBinder<T> binder,
+                           BiConsumer<T, Long> idSetter) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = idSetter == null
+                ? connection.prepareStatement(sql)
+                : connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int from = 0; from < rows.size(); from += configuration.getBatchSize()) {
+                List<T> batch = rows.subList(from, Math.min(rows.size(), from + configuration.getBatchSize()));
+                for (T row : batch) {
+                    binder.bind(statement, row);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                if (idSetter != null) {
+                    // Keys come back in insert order
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (T row : batch) {
+                            if (!keys.next()) {
+                                throw new SQLException("Missing generated key for " + sql);
+                            }
+                            idSetter.accept(row, keys.getLong(1));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static <P, C> List<C> children(List<P> parents, Function<P, List<C>> children) {
+        List<C> all = new ArrayList<>();
+        for (P parent : parents) {
+            all.addAll(children.apply(parent));
+        }
+        return all;
+    }
+
+    private class Progress {
+        private int read;
+        private int imported;
+        private int failed;
+        private final List<RecordError> errors = new ArrayList<>();
+        private String fatalError;
+
+        void imported(int count) {
+            imported += count;
+            importedRecords.increment(count);
+        }
+
+        void fail(int record, String message) {
+            failed++;
+            failedRecords.increment();
+            if (errors.size() < configuration.getMaxReportedErrors()) {
+                errors.add(new RecordError(record, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.models.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies a resume submitted by the edit form to the persisted resume.
+ * <p>
+ * Saving the detached form object would merge every child row and, through orphan removal, could
+ * delete and re-insert whole sections. Instead, submitted entries are matched to the persisted
+ * ones by id and only changed values are copied, so Hibernate's dirty checking updates only the
+ * rows that changed, inserts the new entries and deletes the removed ones. Submitted ids that do
+ * not belong to the resume are treated as new entries.
+ */
+final class ResumeMerger {
+
+    private boolean changed;
+
+    private ResumeMerger() {
+    }
+
+    /**
+     * Copy the submitted resume onto the managed one
+     *
+     * @param target The managed resume, with its sections loaded or loadable
+     * @param source The submitted resume
+     * @return Whether anything changed
+     */
+    static boolean merge(Resume target, Resume source) {
+        ResumeMerger merger = new ResumeMerger();
+        merger.mergeResume(target, source);
+        return merger.changed;
+    }
+
+    private void mergeResume(Resume target, Resume source) {
+        set(target::getTitle, target::setTitle, source.getTitle());
+        set(target::getSummary, target::setSummary, source.getSummary());
+
+        mergeList(target.getExperiences(), source.getExperiences(), Experience::getId,
+                () -> attach(new Experience(), e -> e.setResume(target)), this::mergeExperience);
+        mergeList(target.getEducations(), source.getEducations(), Education::getId,
+                () -> attach(new Education(), e -> e.setResume(target)), this::mergeEducation);
+        mergeList(target.getSkills(), source.getSkills(), Skill::getId,
+                () -> attach(new Skill(), s -> s.setResume(target)), this::mergeSkill);
+        mergeList(target.getCertifications(), source.getCertifications(), Certification::getId,
+                () -> attach(new Certification(), c -> c.setResume(target)), this::mergeCertification);
+        mergeList(target.getLanguages(), source.getLanguages(), Language::getId,
+                () -> attach(new Language(), l -> l.setResume(target)), this::mergeLanguage);
+        mergeList(target.getHobbies(), source.getHobbies(), Hobby::getId,
+                () -> attach(new Hobby(), h -> h.setResume(target)), this::mergeHobby);
+    }
+
+    private void mergeExperience(Experience target, Experience source) {
+        set(target::getCompanyName, target::setCompanyName, source.getCompanyName());
+        set(target::getJobTitle, target::setJobTitle, source.getJobTitle());
+        set(target::getStartDate, target::setStartDate, source.getStartDate());
+        set(target::getEndDate, target::setEndDate, source.getEndDate());
+        set(target::isCurrentlyWorking, target::setCurrentlyWorking, source.isCurrentlyWorking());
+        set(target::getDescription, target::setDescription, source.getDescription());
+        mergeList(target.getProjects(), source.getProjects(), Project::getId,
+                () -> attach(new Project(), p -> p.setExperience(target)), this::mergeProject);
+    }
+
+    private void mergeProject(Project target, Project source) {
+        set(target::getName, target::setName, source.getName());
+        set(target::getDescription, target::setDescription, source.getDescription());
+        set(target::getTechnologies, target::setTechnologies, source.getTechnologies());
+        set(target::getUrl, target::setUrl, source.getUrl());
+    }
+
+    private void mergeEducation(Education target, Education source) {
+        set(target::getInstitution, target::setInstitution, source.getInstitution());
+        set(target::getDegree, target::setDegree, source.getDegree());
+        set(target::getFieldOfStudy, target::setFieldOfStudy, source.getFieldOfStudy());
+        set(target::getStartDate, target::setStartDate, source.getStartDate());
+        set(target::getEndDate, target::setEndDate, source.getEndDate());
+        set(target::isCurrentlyStudying, target::setCurrentlyStudying, source.isCurrentlyStudying());
+        set(target::getDescription, target::setDescription, source.getDescription());
+    }
+
+    private void mergeSkill(Skill target, Skill source) {
+        set(target::getName, target::setName, source.getName());
+        set(target::getProficiencyLevel, target::setProficiencyLevel, source.getProficiencyLevel());
+    }
+
+    private void mergeCertification(Certification target, Certification source) {
+        set(target::getName, target::setName, source.getName());
+        set(target::getIssuingOrganization, target::setIssuingOrganization, source.getIssuingOrganization());
+        set(target::getIssueDate, target::setIssueDate, source.getIssueDate());
+        set(target::getExpirationDate, target::setExpirationDate, source.getExpirationDate());
+        set(target::getCredentialId, target::setCredentialId, source.getCredentialId());
+        set(target::getCredentialUrl, target::setCredentialUrl, source.getCredentialUrl());
+    }
+
+    private void mergeLanguage(Language target, Language source) {
+        set(target::getName, target::setName, source.getName());
+        set(target::getProficiencyLevel, target::setProficiencyLevel, source.getProficiencyLevel());
+    }
+
+    private void mergeHobby(Hobby target, Hobby source) {
+        set(target::getName, target::setName, source.getName());
+        set(target::getDescription, target::setDescription, source.getDescription());
+    }
+
+    /**
+     * Make the persisted list hold the submitted entries, in the submitted order. Entries are
+     * reused by id, new ones are created with {@code factory} and the rest are dropped, which
+     * orphan removal turns into deletes.
+     */
+    private <T> void mergeList(List<T> target, List<T> source, Function<T, Long> id,
+                               Supplier<T> factory, BiConsumer<T, T> merge) {
+        Map<Long, T> existing = new HashMap<>();
+        for (T entry : target) {
+            existing.put(id.apply(entry), entry);
+        }
+
+        List<T> merged = new ArrayList<>();
+        if (source != null) {
+            for (T submitted : source) {
+                if (submitted == null) {
+                    continue;
+                }
+                T entry = id.apply(submitted) == null ? null : existing.remove(id.apply(submitted));
+                if (entry == null) {
+                    entry = factory.get();
+                    changed = true;
+                }
+                merge.accept(entry, submitted);
+                merged.add(entry);
+            }
+        }
+        if (!existing.isEmpty()) {
+            changed = true;
+        }
+
+        // The collections are inverse, so reordering them writes nothing
+        if (!merged.equals(target)) {
+            target.clear();
+            target.addAll(merged);
+        }
+    }
+
+    private <V> void set(Supplier<V> current, Consumer<V> setter, V value) {
+        if (!Objects.equals(current.get(), value)) {
+            setter.accept(value);
+            changed = true;
+        }
+    }
+
+    private static <T> T attach(T entry, Consumer<T> parent) {
+        parent.accept(entry);
+        return entry;
+    }
+}
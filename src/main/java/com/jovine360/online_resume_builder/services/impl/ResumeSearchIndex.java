@@ -0,0 +1,488 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of resume text, ranked with BM25.
+ * <p>
+ * Each resume is one document whose terms are weighted by the field they come from, so a match in
+ * a title or skill counts more than one in a description. Queries match resumes containing every
+ * query term; the last term also matches as a prefix, so results show up while typing. Readers
+ * share a lock and writers take it exclusively.
+ * <p>
+ * Resumes are numbered densely and every posting list is a pair of sorted primitive arrays, which
+ * keeps the index a fraction of the size of boxed maps and lets a query intersect posting lists
+ * with binary searches, or, for a user's library, look up only the user's resumes.
+ */
+final class ResumeSearchIndex {
+
+    // BM25 term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Words, keeping symbols of names such as c++, c# and node.js
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N}+#.]*");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "as", "at", "by", "for", "from",
+            "in", "is", "of", "on", "or", "the", "to", "with");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postings = new TreeMap<>();
+
+    // Document numbers of resumes, and per document number the indexed resume
+    private final Map<Long, Integer> documentNumbers = new HashMap<>();
+    private final Map<Long, Postings> documentsByUser = new HashMap<>();
+    private final Deque<Integer> freeNumbers = new ArrayDeque<>();
+    private Entry[] entries = new Entry[1024];
+    private float[] lengths = new float[1024];
+    private int nextNumber;
+    private double totalLength;
+
+    // Resumes changed while a rebuild runs, whose rebuilt documents would be stale
+    private Set<Long> changedDuringRebuild;
+
+    private final int maxPrefixExpansions;
+
+    record Document(Long resumeId, Long userId, String title, Map<String, Float> terms, float length) {
+    }
+
+    record Hit(Long resumeId, Long userId, String title, double score) {
+    }
+
+    private record Entry(Long resumeId, Long userId, String title, Postings[] terms) {
+    }
+
+    ResumeSearchIndex(int maxPrefixExpansions) {
+        this.maxPrefixExpansions = maxPrefixExpansions;
+    }
+
+    /**
+     * Collects the weighted terms of one resume
+     */
+    static final class DocumentBuilder {
+        private final Long resumeId;
+        private final Long userId;
+        private final String title;
+        private final Map<String, Float> terms = new HashMap<>();
+        private float length;
+
+        DocumentBuilder(Long resumeId, Long userId, String title) {
+            this.resumeId = resumeId;
+            this.userId = userId;
+            this.title = title;
+        }
+
+        DocumentBuilder add(String text, float weight) {
+            for (String token : tokens(text)) {
+                terms.merge(token, weight, Float::sum);
+                length += weight;
+            }
+            return this;
+        }
+
+        Document build() {
+            return new Document(resumeId, userId, title, terms, length);
+        }
+    }
+
+    /**
+     * Document numbers in ascending order, each with a value: the weighted frequency of a term, or
+     * nothing for the resumes of a user
+     */
+    private static final class Postings {
+        private final String term;
+        private int[] numbers = new int[4];
+        private float[] values = new float[4];
+        private int size;
+
+        Postings(String term) {
+            this.term = term;
+        }
+
+        int find(int number) {
+            return Arrays.binarySearch(numbers, 0, size, number);
+        }
+
+        void put(int number, float value) {
+            int index = find(number);
+            if (index >= 0) {
+                values[index] = value;
+                return;
+            }
+            index = -index - 1;
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(numbers, index, numbers, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            numbers[index] = number;
+            values[index] = value;
+            size++;
+        }
+
+        void remove(int number) {
+            int index = find(number);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(numbers, index + 1, numbers, index, size - index - 1);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Scores of the resumes a query considers, by position in its scope
+     */
+    private static final class Accumulator {
+        private final int[] matchedSlots;
+        private final double[] scores;
+        private final double[] slotScores;
+        private final int[] touched;
+        private int touchedCount;
+        private int slot;
+
+        // Positions that matched every slot so far, at the start of touched
+        private int candidates;
+
+        Accumulator(int width) {
+            matchedSlots = new int[width];
+            scores = new double[width];
+            slotScores = new double[width];
+            touched = new int[width];
+        }
+
+        /**
+         * Score a match of the current slot; resumes that missed an earlier slot are ignored, and
+         * a resume matching several terms of a prefix slot keeps its best score
+         */
+        void match(int position, double score) {
+            if (matchedSlots[position] == slot) {
+                matchedSlots[position] = slot + 1;
+                slotScores[position] = score;
+                touched[touchedCount++] = position;
+            } else if (matchedSlots[position] == slot + 1 && score > slotScores[position]) {
+                slotScores[position] = score;
+            }
+        }
+
+        /**
+         * @return Whether any resume matched every slot so far
+         */
+        boolean nextSlot() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] += slotScores[touched[i]];
+            }
+            slot++;
+            candidates = touchedCount;
+            touchedCount = 0;
+            return candidates > 0;
+        }
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Matcher matcher = TOKEN.matcher(normalized);
+        while (matcher.find()) {
+            String token = matcher.group();
+            // Sentence ends are not part of the word
+            int end = token.length();
+            while (token.charAt(end - 1) == '.') {
+                end--;
+            }
+            token = token.substring(0, end);
+            if (!STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Add or replace the document of a resume
+     */
+    void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(document.resumeId());
+            }
+            removeDocument(document.resumeId());
+            addDocument(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long resumeId) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(resumeId);
+            }
+            removeDocument(resumeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Start tracking changes, so documents read by a rebuild don't overwrite newer ones
+     */
+    void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add documents read by a rebuild, skipping resumes changed since the rebuild began
+     */
+    void putRebuilt(List<Document> rebuilt) {
+        lock.writeLock().lock();
+        try {
+            for (Document document : rebuilt) {
+                if (changedDuringRebuild == null || !changedDuringRebuild.contains(document.resumeId())) {
+                    removeDocument(document.resumeId());
+                    addDocument(document);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void endRebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the best matching resumes
+     *
+     * @param query The query text
+     * @param userId Only search the resumes of this user, or null to search all resumes
+     * @param limit The maximum number of hits
+     * @return The hits, best first
+     */
+    List<Hit> search(String query, Long userId, int limit) {
+        List<String> queryTerms = tokens(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            // The user's document numbers; positions in it index the accumulator
+            Postings scope = null;
+            if (userId != null) {
+                scope = documentsByUser.get(userId);
+                if (scope == null) {
+                    return List.of();
+                }
+            }
+
+            // Each query term matches itself, the last one also every term it is a prefix of
+            List<List<Postings>> slots = new ArrayList<>();
+            for (int i = 0; i < queryTerms.size(); i++) {
+                List<Postings> slot = i == queryTerms.size() - 1
+                        ? expand(queryTerms.get(i))
+                        : exact(queryTerms.get(i));
+                if (slot.isEmpty()) {
+                    return List.of();
+                }
+                slots.add(slot);
+            }
+            // Rarest terms first, so fewer resumes are left to check against the common ones
+            slots.sort(Comparator.comparingInt(ResumeSearchIndex::size));
+
+            double averageLength = documentNumbers.isEmpty() ? 1 : totalLength / documentNumbers.size();
+            Accumulator accumulator = new Accumulator(scope != null ? scope.size : nextNumber);
+            for (List<Postings> slot : slots) {
+                for (Postings termPostings : slot) {
+                    match(termPostings, scope, accumulator, idf(termPostings.size), averageLength);
+                }
+                if (!accumulator.nextSlot()) {
+                    return List.of();
+                }
+            }
+
+            PriorityQueue<Integer> best = new PriorityQueue<>(
+                    Comparator.comparingDouble(position -> accumulator.scores[position]));
+            for (int i = 0; i < accumulator.candidates; i++) {
+                best.add(accumulator.touched[i]);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                int position = best.poll();
+                Entry entry = entries[scope != null ? scope.numbers[position] : position];
+                hits.add(new Hit(entry.resumeId(), entry.userId(), entry.title(), accumulator.scores[position]));
+            }
+            Collections.reverse(hits);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return documentNumbers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Score the resumes in scope containing a term. Walks the shorter of the posting list and the
+     * scope, looking each number up in the other.
+     */
+    private void match(Postings termPostings, Postings scope, Accumulator accumulator, double idf, double averageLength) {
+        if (scope == null) {
+            for (int i = 0; i < termPostings.size; i++) {
+                int number = termPostings.numbers[i];
+                accumulator.match(number, score(number, termPostings.values[i], idf, averageLength));
+            }
+        } else if (scope.size < termPostings.size) {
+            for (int position = 0; position < scope.size; position++) {
+                int index = termPostings.find(scope.numbers[position]);
+                if (index >= 0) {
+                    accumulator.match(position, score(scope.numbers[position], termPostings.values[index], idf, averageLength));
+                }
+            }
+        } else {
+            for (int i = 0; i < termPostings.size; i++) {
+                int position = scope.find(termPostings.numbers[i]);
+                if (position >= 0) {
+                    accumulator.match(position, score(termPostings.numbers[i], termPostings.values[i], idf, averageLength));
+                }
+            }
+        }
+    }
+
+    private List<Postings> exact(String term) {
+        Postings termPostings = postings.get(term);
+        return termPostings == null ? List.of() : List.of(termPostings);
+    }
+
+    private List<Postings> expand(String prefix) {
+        List<Postings> slot = new ArrayList<>();
+        for (Map.Entry<String, Postings> entry : postings.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || slot.size() >= maxPrefixExpansions) {
+                break;
+            }
+            slot.add(entry.getValue());
+        }
+        return slot;
+    }
+
+    private static int size(List<Postings> slot) {
+        int size = 0;
+        for (Postings termPostings : slot) {
+            size += termPostings.size;
+        }
+        return size;
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (documentNumbers.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double score(int number, float frequency, double idf, double averageLength) {
+        double norm = K1 * (1 - B + B * lengths[number] / averageLength);
+        return idf * frequency * (K1 + 1) / (frequency + norm);
+    }
+
+    private void addDocument(Document document) {
+        int number;
+        if (freeNumbers.isEmpty()) {
+            number = nextNumber++;
+            if (number == entries.length) {
+                entries = Arrays.copyOf(entries, number * 2);
+                lengths = Arrays.copyOf(lengths, number * 2);
+            }
+        } else {
+            number = freeNumbers.pop();
+        }
+
+        Postings[] terms = new Postings[document.terms().size()];
+        int i = 0;
+        for (Map.Entry<String, Float> term : document.terms().entrySet()) {
+            terms[i] = postings.computeIfAbsent(term.getKey(), Postings::new);
+            terms[i].put(number, term.getValue());
+            i++;
+        }
+        entries[number] = new Entry(document.resumeId(), document.userId(), document.title(), terms);
+        lengths[number] = document.length();
+        documentNumbers.put(document.resumeId(), number);
+        documentsByUser.computeIfAbsent(document.userId(), ignored -> new Postings(null)).put(number, 0);
+        totalLength += document.length();
+    }
+
+    private void removeDocument(Long resumeId) {
+        Integer number = documentNumbers.remove(resumeId);
+        if (number == null) {
+            return;
+        }
+        Entry entry = entries[number];
+        for (Postings termPostings : entry.terms()) {
+            termPostings.remove(number);
+            if (termPostings.size == 0) {
+                postings.remove(termPostings.term);
+            }
+        }
+        Postings userDocuments = documentsByUser.get(entry.userId());
+        userDocuments.remove(number);
+        if (userDocuments.size == 0) {
+            documentsByUser.remove(entry.userId());
+        }
+        totalLength -= lengths[number];
+        entries[number] = null;
+        lengths[number] = 0;
+        freeNumbers.push(number);
+    }
+}
@@ -0,0 +1,286 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.ResumeSearchConfiguration;
+import com.jovine360.online_resume_builder.models.*;
+import com.jovine360.online_resume_builder.services.impl.ResumeSearchIndex.DocumentBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full-text search over resumes, backed by an in-process {@link ResumeSearchIndex}.
+ * <p>
+ * The index is rebuilt from the database in parallel on startup and kept current by
+ * {@link ResumeServiceImpl} and {@link ResumeImportService}, which hand over every created, updated
+ * and deleted resume once its transaction committed. Changes made by other instances or directly in
+ * the database only show up after a restart.
+ * <p>
+ * Search latency is recorded as {@code resume.search.duration} per scope ({@code user} or
+ * {@code all}) with a percentile histogram.
+ */
+@Service
+@Slf4j
+public class ResumeSearchService {
+
+    // Field weights: names and titles say more about a resume than prose
+    private static final float STRONG = 3;
+    private static final float MEDIUM = 2;
+    private static final float WEAK = 1;
+
+    private final ResumeSearchConfiguration configuration;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ResumeSearchIndex index;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean ready;
+
+    public record SearchHit(Long resumeId, Long userId, String title, double score) {
+    }
+
+    public ResumeSearchService(ResumeSearchConfiguration configuration, JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.configuration = configuration;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.index = new ResumeSearchIndex(configuration.getMaxPrefixExpansions());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("resume.search.documents", index, ResumeSearchIndex::documentCount)
+                .description("Resumes in the search index")
+                .register(meterRegistry);
+        Gauge.builder("resume.search.terms", index, ResumeSearchIndex::termCount)
+                .description("Distinct terms in the search index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Find the resumes best matching a query
+     *
+     * @param query The query text; every term must match, the last one also as a prefix
+     * @param userId Only search the resumes of this user, or null to search all resumes
+     * @param limit The maximum number of hits, capped by {@code resume.search.max-results}
+     * @return The hits, best first
+     */
+    public List<SearchHit> search(String query, Long userId, int limit) {
+        int cappedLimit = limit <= 0 ? configuration.getMaxResults() : Math.min(limit, configuration.getMaxResults());
+        long start = System.nanoTime();
+        List<SearchHit> hits = index.search(query, userId, cappedLimit).stream()
+                .map(hit -> new SearchHit(hit.resumeId(), hit.userId(), hit.title(), hit.score()))
+                .toList();
+        Timer.builder("resume.search.duration")
+                .description("Time spent on a search query")
+                .tag("scope", userId == null ? "all" : "user")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return hits;
+    }
+
+    /**
+     * @return Whether the startup rebuild has finished, so searches see every resume
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Index a created or updated resume once the current transaction commits
+     *
+     * @param resume The resume with its sections, read right away
+     * @param userId The owner of the resume
+     */
+    public void index(Resume resume, Long userId) {
+        ResumeSearchIndex.Document document = document(resume, userId);
+        afterCommit(() -> index.put(document));
+    }
+
+    /**
+     * Drop a deleted resume once the current transaction commits
+     *
+     * @param resumeId The resume id
+     */
+    public void remove(Long resumeId) {
+        afterCommit(() -> index.remove(resumeId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!configuration.isRebuildOnStartup()) {
+            ready = true;
+            return;
+        }
+        // Serve requests while the index fills up
+        Thread thread = new Thread(this::rebuild, "search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Read every resume from the database and index it, in id ranges on parallel threads
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        index.beginRebuild();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(configuration.getRebuildThreads(),
+                runnable -> new Thread(runnable, "search-rebuild-" + threadCount.incrementAndGet()));
+        try {
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("select min(id) as low, max(id) as high from resumes");
+            List<Future<Integer>> tasks = new ArrayList<>();
+            if (bounds.get("low") != null) {
+                long low = ((Number) bounds.get("low")).longValue();
+                long high = ((Number) bounds.get("high")).longValue();
+                for (long from = low; from <= high; from += configuration.getRebuildBatchSize()) {
+                    long to = Math.min(high, from + configuration.getRebuildBatchSize() - 1);
+                    long rangeStart = from;
+                    tasks.add(executor.submit(() -> readOnlyTransaction.execute(status -> rebuild(rangeStart, to))));
+                }
+            }
+            int indexed = 0;
+            for (Future<Integer> task : tasks) {
+                indexed += task.get();
+            }
+            ready = true;
+            log.info("Indexed {} resumes for search in {} ms", indexed,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            log.error("Rebuilding the search index failed, only changed resumes are searchable", e);
+        } finally {
+            index.endRebuild();
+            executor.shutdownNow();
+        }
+    }
+
+    private int rebuild(long from, long to) {
+        Map<Long, DocumentBuilder> builders = new HashMap<>();
+        jdbcTemplate.query("select id, user_id, title, summary from resumes where id between ? and ?",
+                rs -> {
+                    builders.put(rs.getLong(1), new DocumentBuilder(rs.getLong(1), rs.getLong(2), rs.getString(3))
+                            .add(rs.getString(3), STRONG)
+                            .add(rs.getString(4), WEAK));
+                }, from, to);
+        if (builders.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.query("select resume_id, job_title, company_name, description from experiences where resume_id between ? and ?",
+                rs -> {
+                    addExperience(builders.get(rs.getLong(1)), rs.getString(2), rs.getString(3), rs.getString(4));
+                }, from, to);
+        jdbcTemplate.query("select e.resume_id, p.name, p.technologies, p.description from projects p "
+                        + "join experiences e on e.id = p.experience_id where e.resume_id between ? and ?",
+                rs -> {
+                    addProject(builders.get(rs.getLong(1)), rs.getString(2), rs.getString(3), rs.getString(4));
+                }, from, to);
+        jdbcTemplate.query("select resume_id, degree, field_of_study, institution, description from educations where resume_id between ? and ?",
+                rs -> {
+                    addEducation(builders.get(rs.getLong(1)), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+                }, from, to);
+        jdbcTemplate.query("select resume_id, name from skills where resume_id between ? and ?",
+                rs -> {
+                    addSkill(builders.get(rs.getLong(1)), rs.getString(2));
+                }, from, to);
+        jdbcTemplate.query("select resume_id, name, issuing_organization from certifications where resume_id between ? and ?",
+                rs -> {
+                    addCertification(builders.get(rs.getLong(1)), rs.getString(2), rs.getString(3));
+                }, from, to);
+        jdbcTemplate.query("select resume_id, name from languages where resume_id between ? and ?",
+                rs -> {
+                    addLanguage(builders.get(rs.getLong(1)), rs.getString(2));
+                }, from, to);
+        jdbcTemplate.query("select resume_id, name, description from hobbies where resume_id between ? and ?",
+                rs -> {
+                    addHobby(builders.get(rs.getLong(1)), rs.getString(2), rs.getString(3));
+                }, from, to);
+
+        index.putRebuilt(builders.values().stream().map(DocumentBuilder::build).toList());
+        return builders.size();
+    }
+
+    static ResumeSearchIndex.Document document(Resume resume, Long userId) {
+        DocumentBuilder builder = new DocumentBuilder(resume.getId(), userId, resume.getTitle())
+                .add(resume.getTitle(), STRONG)
+                .add(resume.getSummary(), WEAK);
+        for (Experience experience : resume.getExperiences()) {
+            addExperience(builder, experience.getJobTitle(), experience.getCompanyName(), experience.getDescription());
+            for (Project project : experience.getProjects()) {
+                addProject(builder, project.getName(), project.getTechnologies(), project.getDescription());
+            }
+        }
+        for (Education education : resume.getEducations()) {
+            addEducation(builder, education.getDegree(), education.getFieldOfStudy(), education.getInstitution(),
+                    education.getDescription());
+        }
+        resume.getSkills().forEach(skill -> addSkill(builder, skill.getName()));
+        resume.getCertifications().forEach(certification ->
+                addCertification(builder, certification.getName(), certification.getIssuingOrganization()));
+        resume.getLanguages().forEach(language -> addLanguage(builder, language.getName()));
+        resume.getHobbies().forEach(hobby -> addHobby(builder, hobby.getName(), hobby.getDescription()));
+        return builder.build();
+    }
+
+    private static void addExperience(DocumentBuilder builder, String jobTitle, String companyName, String description) {
+        builder.add(jobTitle, STRONG).add(companyName, MEDIUM).add(description, WEAK);
+    }
+
+    private static void addProject(DocumentBuilder builder, String name, String technologies, String description) {
+        builder.add(name, MEDIUM).add(technologies, MEDIUM).add(description, WEAK);
+    }
+
+    private static void addEducation(DocumentBuilder builder, String degree, String fieldOfStudy,
+                                     String institution, String description) {
+        builder.add(degree, MEDIUM).add(fieldOfStudy, MEDIUM).add(institution, MEDIUM).add(description, WEAK);
+    }
+
+    private static void addSkill(DocumentBuilder builder, String name) {
+        builder.add(name, STRONG);
+    }
+
+    private static void addCertification(DocumentBuilder builder, String name, String issuingOrganization) {
+        builder.add(name, MEDIUM).add(issuingOrganization, WEAK);
+    }
+
+    private static void addLanguage(DocumentBuilder builder, String name) {
+        builder.add(name, MEDIUM);
+    }
+
+    private static void addHobby(DocumentBuilder builder, String name, String description) {
+        builder.add(name, WEAK).add(description, WEAK);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,13 +1,21 @@
 package com.jovine360.online_resume_builder.services.impl;
 
+import com.jovine360.online_resume_builder.config.EntityCacheConfiguration;
 import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.ResumeSummary;
 import com.jovine360.online_resume_builder.models.User;
 import com.jovine360.online_resume_builder.repository.ResumeRepository;
 import com.jovine360.online_resume_builder.repository.UserRepository;
 import com.jovine360.online_resume_builder.services.ResumeService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,23 +25,89 @@ public class ResumeServiceImpl implements ResumeService {
     
     private final ResumeRepository resumeRepository;
     private final UserRepository userRepository;
+    private final PdfCache pdfCache;
+    private final ResumeAggregateLoader aggregateLoader;
+    private final ResumeSearchService searchService;
+    private final SharedResumeService sharedResumeService;
     
     @Override
     public Resume createResume(Resume resume, Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        resume.setUser(user);
-        return resumeRepository.save(resume);
+        // Only the foreign key is needed, so don't load the user
+        resume.setUser(userRepository.getReferenceById(userId));
+        // Resumes are only shared through shareResume, never with a submitted token
+        resume.setShareToken(null);
+        Resume saved = resumeRepository.save(resume);
+        searchService.index(saved, userId);
+        return saved;
     }
     
+    /**
+     * Apply an edited resume to the persisted one, writing only the rows that changed.
+     *
+     * @param resume The submitted resume, carrying the id of the resume to update
+     * @return The updated resume
+     */
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = EntityCacheConfiguration.RESUMES, key = "#resume.id")
     public Resume updateResume(Resume resume) {
-        return resumeRepository.save(resume);
+        Resume existing = resumeRepository.findById(resume.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Resume not found"));
+        if (ResumeMerger.merge(existing, resume)) {
+            // A change to a section alone wouldn't trigger @PreUpdate
+            existing.setUpdatedAt(LocalDateTime.now());
+            Long id = existing.getId();
+            // Dropped once the save commits, like the cached resume, so a PDF rendered meanwhile
+            // from the old resume isn't kept
+            afterCommit(() -> pdfCache.evictResume(id));
+            searchService.index(existing, existing.getUser().getId());
+            sharedResumeService.publish(existing);
+        }
+        return existing;
     }
     
     @Override
+    @CacheEvict(cacheNames = EntityCacheConfiguration.RESUMES, key = "#id")
     public void deleteResume(Long id) {
+        Optional<String> shareToken = resumeRepository.findShareTokenById(id);
         resumeRepository.deleteById(id);
+        pdfCache.evictResume(id);
+        searchService.remove(id);
+        shareToken.ifPresent(sharedResumeService::unpublish);
+    }
+    
+    /**
+     * Share a resume under a new token, revoking the previous one, and render its snapshot.
+     * <p>
+     * Not transactional: the token change is committed before the previous snapshot is dropped.
+     *
+     * @param id The resume id
+     * @return The new share token
+     */
+    @Override
+    @CacheEvict(cacheNames = EntityCacheConfiguration.RESUMES, key = "#id")
+    public String shareResume(Long id) {
+        String token = SharedResumeService.newToken();
+        Optional<String> previous = resumeRepository.findShareTokenById(id);
+        resumeRepository.updateShareToken(id, token);
+        previous.ifPresent(sharedResumeService::unpublish);
+        aggregateLoader.load(id).ifPresent(resume -> sharedResumeService.publish(resume, token));
+        return token;
+    }
+    
+    /**
+     * Revoke the share token of a resume, if it has one
+     *
+     * @param id The resume id
+     */
+    @Override
+    @CacheEvict(cacheNames = EntityCacheConfiguration.RESUMES, key = "#id")
+    public void unshareResume(Long id) {
+        Optional<String> token = resumeRepository.findShareTokenById(id);
+        if (token.isPresent()) {
+            resumeRepository.updateShareToken(id, null);
+            sharedResumeService.unpublish(token.get());
+        }
     }
     
     @Override
@@ -41,6 +115,50 @@ public class ResumeServiceImpl implements ResumeService {
         return resumeRepository.findById(id);
     }
     
+    @Override
+    public Optional<Resume> findByIdWithDetails(Long id) {
+        return aggregateLoader.load(id);
+    }
+    
+    @Override
+    public Optional<Resume> findByIdAndUserId(Long id, Long userId) {
+        return resumeRepository.findByIdAndUserId(id, userId);
+    }
+    
+    /**
+     * Load a resume with its owner and every section, if it belongs to the given user.
+     * <p>
+     * Ownership is checked on the cached aggregate, so a cache hit needs no query at all.
+     *
+     * @param id The resume id
+     * @param userId The id of the user that must own the resume
+     * @return The resume, or empty if it does not exist or belongs to someone else
+     */
+    @Override
+    public Optional<Resume> findByIdWithDetailsAndUserId(Long id, Long userId) {
+        return aggregateLoader.load(id)
+                .filter(resume -> resume.getUser().getId().equals(userId));
+    }
+    
+    /**
+     * Find when a resume last changed, if it belongs to the given user, without loading it.
+     * <p>
+     * A cached aggregate answers without a query, otherwise only the timestamp is read.
+     *
+     * @param id The resume id
+     * @param userId The id of the user that must own the resume
+     * @return The update time, or empty if the resume does not exist or belongs to someone else
+     */
+    @Override
+    public Optional<LocalDateTime> findUpdatedAtByIdAndUserId(Long id, Long userId) {
+        Optional<Resume> cached = aggregateLoader.getCached(id);
+        if (cached.isPresent()) {
+            return cached.filter(resume -> resume.getUser().getId().equals(userId))
+                    .map(Resume::getUpdatedAt);
+        }
+        return resumeRepository.findUpdatedAtByIdAndUserId(id, userId);
+    }
+    
     @Override
     public List<Resume> findAllByUser(User user) {
         return resumeRepository.findAllByUser(user);
@@ -50,4 +168,46 @@ public class ResumeServiceImpl implements ResumeService {
     public List<Resume> findAllByUserId(Long userId) {
         return resumeRepository.findAllByUserId(userId);
     }
-}
\ No newline at end of file
+    
+    @Override
+    public List<Long> findIdsByUserId(Long userId) {
+        return resumeRepository.findIdsByUserId(userId);
+    }
+    
+    /**
+     * List a page of a user's resumes, most recently updated first, with the size of each section.
+     * <p>
+     * Each page is one query that reads no section rows, and pages continue from the last resume
+     * of the previous page rather than from an offset, so later pages cost the same as the first.
+     *
+     * @param userId The owner of the resumes
+     * @param beforeUpdatedAt The update time of the last resume of the previous page, or null for the first page
+     * @param beforeId The id of the last resume of the previous page, or null for the first page
+     * @param limit The maximum number of resumes to return
+     */
+    @Override
+    public List<ResumeSummary> findSummariesByUserId(Long userId, LocalDateTime beforeUpdatedAt, Long beforeId, int limit) {
+        if (beforeUpdatedAt == null || beforeId == null) {
+            return resumeRepository.findSummariesByUserId(userId, Limit.of(limit));
+        }
+        return resumeRepository.findSummariesByUserIdAfter(userId, beforeUpdatedAt, beforeId, Limit.of(limit));
+    }
+    
+    @Override
+    public long countByUserId(Long userId) {
+        return resumeRepository.countByUserId(userId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+
+/**
+ * Answers conditional GETs of the resume pages and PDF downloads.
+ * <p>
+ * Every edit moves a resume's {@code updatedAt}, see {@link ResumeServiceImpl#updateResume}, so
+ * together with what a response is rendered from it makes a strong ETag. Pages also depend on
+ * the view templates and carry the session's CSRF token, so their ETag covers both; PDFs cover
+ * the fingerprint of the PDF templates, fonts and output settings instead. A request carrying
+ * validators is checked against the update time alone, before the resume is loaded or rendered.
+ */
+@Service
+@RequiredArgsConstructor
+public class ResumeValidators {
+
+    // Browsers keep the response but revalidate it before every reuse
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private final ResumeService resumeService;
+    private final PdfCache pdfCache;
+
+    private String pageFingerprint;
+
+    @PostConstruct
+    public void init() throws IOException {
+        MessageDigest digest = sha256();
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (Resource template : resolver.getResources("classpath*:templates/resumes/*.html")) {
+            try (InputStream in = template.getInputStream()) {
+                update(digest, template.getFilename());
+                digest.update(in.readAllBytes());
+            }
+        }
+        pageFingerprint = HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * @param request The current request, whose session the page's CSRF token belongs to
+     * @param view The view the page is rendered with
+     * @param template The requested template, may be null
+     * @return What a resume page is rendered from besides the resume
+     */
+    public String pageVariant(ServletWebRequest request, String view, String template) {
+        return String.join("\u0000", "page", pageFingerprint, view, String.valueOf(template),
+                request.getSessionId());
+    }
+
+    /**
+     * @param template The template the PDF is rendered with
+     * @return What a PDF is rendered from besides the resume
+     */
+    public String pdfVariant(String template) {
+        return String.join("\u0000", "pdf", pdfCache.getTemplateFingerprint(), template);
+    }
+
+    /**
+     * Answer a conditional request with 304 if the resume has not changed, without loading it.
+     * Requests without validators are left to {@link #checkNotModified(ServletWebRequest, Resume, String)}.
+     *
+     * @param request The current request
+     * @param resumeId The requested resume
+     * @param userId The id of the user that must own the resume
+     * @param variant The {@link #pageVariant} or {@link #pdfVariant} of the response
+     * @return Whether the 304 response is complete
+     */
+    public boolean checkNotModified(ServletWebRequest request, Long resumeId, Long userId, String variant) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null
+                && request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            return false;
+        }
+        return resumeService.findUpdatedAtByIdAndUserId(resumeId, userId)
+                .map(updatedAt -> checkNotModified(request, resumeId, updatedAt, variant))
+                .orElse(false);
+    }
+
+    /**
+     * Set the validators of a loaded resume on the response, answering with 304 if they match
+     *
+     * @param request The current request
+     * @param resume The resume the response is rendered from
+     * @param variant The {@link #pageVariant} or {@link #pdfVariant} of the response
+     * @return Whether the 304 response is complete
+     */
+    public boolean checkNotModified(ServletWebRequest request, Resume resume, String variant) {
+        return checkNotModified(request, resume.getId(), resume.getUpdatedAt(), variant);
+    }
+
+    private boolean checkNotModified(ServletWebRequest request, Long resumeId, LocalDateTime updatedAt,
+                                     String variant) {
+        if (request.getResponse() != null) {
+            // Also keeps Spring Security from marking the response no-store
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        // Databases keep microseconds, so a cached resume and a fresh lookup agree
+        LocalDateTime version = updatedAt.truncatedTo(ChronoUnit.MICROS);
+        MessageDigest digest = sha256();
+        update(digest, resumeId, version, variant);
+        String eTag = resumeId + "-" + HexFormat.of().formatHex(digest.digest(), 0, 16);
+        long lastModified = version.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(eTag, lastModified);
+    }
+
+    private static void update(MessageDigest digest, Object... values) {
+        for (Object value : values) {
+            digest.update(("\u0000" + value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
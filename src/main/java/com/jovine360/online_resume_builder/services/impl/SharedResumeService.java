@@ -0,0 +1,308 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jovine360.online_resume_builder.config.SharedResumeConfiguration;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.repository.ResumeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Serves shared resumes from pre-rendered snapshots.
+ * <p>
+ * A shared resume is reachable by its share token alone. Its page is rendered when it is shared
+ * and again whenever a save commits, and kept in memory by token, so serving it touches neither the
+ * database nor the template engine. The PDF is rendered on its first download and kept with the
+ * page. Snapshots evicted by {@code resume.sharing.max-size}, or lost on restart, are rendered
+ * again on their next request, once however many requests arrive together; rendering never holds
+ * the cache's locks. Tokens no resume is shared under are remembered for
+ * {@code resume.sharing.unknown-token-ttl}, so repeating a dead or guessed link doesn't reach the
+ * database, and revoked tokens for a while longer, so a render that raced the revocation is
+ * never kept.
+ */
+@Service
+@Slf4j
+public class SharedResumeService {
+
+    private static final String VIEW = "resumes/resume-template";
+    private static final Pattern TOKEN = Pattern.compile("[A-Za-z0-9_-]{32}");
+    private static final SecureRandom RANDOM = new SecureRandom();
+    // Outlives any render that started before its token was revoked
+    private static final Duration REVOKED_TOKEN_TTL = Duration.ofMinutes(10);
+
+    private final ResumeRepository resumeRepository;
+    private final ResumeAggregateLoader aggregateLoader;
+    private final TemplateEngine templateEngine;
+    private final PDFService pdfService;
+    private final Cache<String, Snapshot> snapshots;
+    private final Cache<String, Boolean> unknownTokens;
+    private final Cache<String, Boolean> revokedTokens;
+    private final Map<String, CompletableFuture<Snapshot>> loads = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Snapshot>> pdfRenders = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter unknown;
+
+    /**
+     * A rendered shared resume; the PDF is null until it was first downloaded
+     */
+    public record Snapshot(Long resumeId, LocalDateTime updatedAt, String title, byte[] html, String eTag,
+                           byte[] pdf, String pdfETag) {
+
+        private Snapshot withPdf(byte[] pdf) {
+            return new Snapshot(resumeId, updatedAt, title, html, eTag, pdf, digest(pdf));
+        }
+
+        private int weight() {
+            return html.length + (pdf == null ? 0 : pdf.length);
+        }
+    }
+
+    public SharedResumeService(SharedResumeConfiguration configuration, ResumeRepository resumeRepository,
+                               ResumeAggregateLoader aggregateLoader, TemplateEngine templateEngine,
+                               PDFService pdfService, MeterRegistry meterRegistry) {
+        this.resumeRepository = resumeRepository;
+        this.aggregateLoader = aggregateLoader;
+        this.templateEngine = templateEngine;
+        this.pdfService = pdfService;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(configuration.getMaxSize().toBytes())
+                .weigher((String token, Snapshot snapshot) -> snapshot.weight())
+                .build();
+        this.unknownTokens = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaxUnknownTokens())
+                .expireAfterWrite(configuration.getUnknownTokenTtl())
+                .build();
+        this.revokedTokens = Caffeine.newBuilder()
+                .maximumSize(configuration.getMaxUnknownTokens())
+                .expireAfterWrite(REVOKED_TOKEN_TTL)
+                .build();
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.unknown = requests(meterRegistry, "unknown");
+        Gauge.builder("resume.sharing.snapshots", snapshots, Cache::estimatedSize)
+                .description("Shared resumes rendered and kept in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return A new random share token
+     */
+    public static String newToken() {
+        byte[] bytes = new byte[24];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Find the snapshot of a shared resume, rendering it if it isn't kept
+     *
+     * @param token The share token from the link
+     * @return The snapshot, or empty if no resume is shared under the token
+     */
+    public Optional<Snapshot> find(String token) {
+        if (token == null || !TOKEN.matcher(token).matches()) {
+            return Optional.empty();
+        }
+        Snapshot snapshot = snapshots.getIfPresent(token);
+        if (snapshot != null) {
+            hits.increment();
+            return Optional.of(snapshot);
+        }
+        if (unknownTokens.getIfPresent(token) != null || revokedTokens.getIfPresent(token) != null) {
+            unknown.increment();
+            return Optional.empty();
+        }
+        misses.increment();
+        snapshot = once(loads, token, () -> {
+            // Rendered by a request that finished while this one was on its way
+            Snapshot kept = snapshots.getIfPresent(token);
+            return kept != null ? kept : load(token);
+        });
+        if (snapshot == null) {
+            unknownTokens.put(token, Boolean.TRUE);
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * Find the snapshot of a shared resume with its PDF, rendering the PDF on the first download,
+     * once however many downloads arrive together
+     *
+     * @param token The share token from the link
+     * @return The snapshot, or empty if no resume is shared under the token
+     */
+    public Optional<Snapshot> findWithPdf(String token) {
+        return find(token).map(snapshot -> snapshot.pdf() != null ? snapshot : once(pdfRenders, token, () -> {
+            Snapshot kept = snapshots.getIfPresent(token);
+            return kept != null && kept.pdf() != null ? kept : renderPdf(token, snapshot);
+        }));
+    }
+
+    /**
+     * Render the snapshot of a resume once the current transaction commits, if the resume is shared
+     * by then, replacing the previous one. A rolled back save publishes nothing.
+     *
+     * @param resume The resume with all its sections loaded or loadable
+     */
+    public void publish(Resume resume) {
+        afterCommit(() -> resumeRepository.findShareTokenById(resume.getId())
+                .ifPresent(token -> install(token, render(resume))));
+    }
+
+    /**
+     * Render the snapshot of a resume that was just shared under a token. Call once the token is
+     * committed.
+     *
+     * @param resume The resume with all its sections loaded or loadable
+     * @param token The new share token
+     */
+    public void publish(Resume resume, String token) {
+        install(token, render(resume));
+    }
+
+    /**
+     * Drop the snapshot of a revoked token. Call after the revocation was committed, so a
+     * concurrent request can't render the snapshot again.
+     *
+     * @param token The revoked share token
+     */
+    public void unpublish(String token) {
+        // Marked before the drop, so a snapshot rendered before the revocation but installed after
+        // it is turned away
+        revokedTokens.put(token, Boolean.TRUE);
+        snapshots.invalidate(token);
+    }
+
+    private Snapshot load(String token) {
+        return resumeRepository.findIdByShareToken(token)
+                .flatMap(aggregateLoader::load)
+                .map(resume -> install(token, render(resume)))
+                .orElse(null);
+    }
+
+    /**
+     * Keep a snapshot rendered for a token, unless the token was revoked or a save that committed
+     * later published first. Only compares what is in memory, as it runs under the token's lock.
+     *
+     * @return The snapshot kept, or null if the token was revoked
+     */
+    private Snapshot install(String token, Snapshot snapshot) {
+        return snapshots.asMap().compute(token, (key, current) -> {
+            if (revokedTokens.getIfPresent(key) != null) {
+                return null;
+            }
+            unknownTokens.invalidate(key);
+            boolean newer = current != null && current.updatedAt() != null && snapshot.updatedAt() != null
+                    && current.updatedAt().isAfter(snapshot.updatedAt());
+            return newer ? current : snapshot;
+        });
+    }
+
+    private Snapshot render(Resume resume) {
+        Context context = new Context();
+        context.setVariable("resume", resume);
+        byte[] html = templateEngine.process(VIEW, context).getBytes(StandardCharsets.UTF_8);
+        return new Snapshot(resume.getId(), resume.getUpdatedAt(), resume.getTitle(), html, digest(html), null, null);
+    }
+
+    /**
+     * Render the PDF of a snapshot and keep it with the page, unless a save replaced the page or the
+     * token was revoked meanwhile
+     *
+     * @return The snapshot with its PDF, or null if the resume was deleted
+     */
+    private Snapshot renderPdf(String token, Snapshot snapshot) {
+        Optional<Resume> resume = aggregateLoader.load(snapshot.resumeId());
+        if (resume.isEmpty()) {
+            snapshots.asMap().remove(token, snapshot);
+            return null;
+        }
+        Snapshot rendered = snapshot.withPdf(pdfService.generatePDF(resume.get(), "default"));
+        log.debug("Rendered the shared PDF of resume {}", snapshot.resumeId());
+        Snapshot kept = snapshots.asMap().computeIfPresent(token, (key, current) ->
+                current == snapshot ? rendered : current);
+        return kept == null ? null : rendered;
+    }
+
+    /**
+     * Run the work for a token in this thread, unless another thread is already running it for the
+     * same token, then wait for its result instead. Nothing is locked while the work runs.
+     */
+    private static <T> T once(Map<String, CompletableFuture<T>> running, String token, Supplier<T> work) {
+        CompletableFuture<T> started = new CompletableFuture<>();
+        CompletableFuture<T> other = running.putIfAbsent(token, started);
+        if (other != null) {
+            try {
+                return other.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            T result = work.get();
+            started.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            started.completeExceptionally(e);
+            throw e;
+        } finally {
+            running.remove(token, started);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String digest(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("resume.sharing.requests")
+                .description("Shared resume requests, by whether the snapshot was kept")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
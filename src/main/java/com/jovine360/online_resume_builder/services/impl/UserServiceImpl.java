@@ -1,9 +1,14 @@
 package com.jovine360.online_resume_builder.services.impl;
 
+import com.jovine360.online_resume_builder.config.EntityCacheConfiguration;
 import com.jovine360.online_resume_builder.models.User;
 import com.jovine360.online_resume_builder.repository.UserRepository;
 import com.jovine360.online_resume_builder.services.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -29,21 +34,42 @@ public class UserServiceImpl implements UserService {
         return userRepository.save(user);
     }
     
+    // Usernames and emails don't change after registration, so these are every key the user is
+    // cached under; a re-hash on login leaves the other users cached
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = EntityCacheConfiguration.USERS, key = "'username:' + #user.username"),
+            @CacheEvict(cacheNames = EntityCacheConfiguration.USERS, key = "'email:' + #user.email"),
+            @CacheEvict(cacheNames = EntityCacheConfiguration.USERS, key = "'login:' + #user.username"),
+            @CacheEvict(cacheNames = EntityCacheConfiguration.USERS, key = "'login:' + #user.email")
+    })
     public User updateUser(User user) {
         return userRepository.save(user);
     }
     
     @Override
+    @Cacheable(cacheNames = EntityCacheConfiguration.USERS, key = "'username:' + #username", unless = "#result == null")
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
     
     @Override
+    @Cacheable(cacheNames = EntityCacheConfiguration.USERS, key = "'email:' + #email", unless = "#result == null")
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
     
+    /**
+     * Find the user signing in, by username or email address, in one query
+     *
+     * @param login The username or email address entered on the login form
+     */
+    @Override
+    @Cacheable(cacheNames = EntityCacheConfiguration.USERS, key = "'login:' + #login", unless = "#result == null")
+    public Optional<User> findByUsernameOrEmail(String login) {
+        return userRepository.findByUsernameOrEmail(login, Limit.of(1)).stream().findFirst();
+    }
+    
     @Override
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
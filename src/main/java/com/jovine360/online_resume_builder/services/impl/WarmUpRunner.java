@@ -0,0 +1,180 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.config.WarmUpConfiguration;
+import com.jovine360.online_resume_builder.models.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Pays the cold-start costs of a fresh instance before it takes traffic.
+ * <p>
+ * Every PDF template is rendered against a synthetic resume, which loads the Thymeleaf, Flying
+ * Saucer and OpenPDF classes, parses the templates and stylesheets into their caches and gives the
+ * JIT a few rounds of the render path. The configured pages are then requested through the local
+ * web server, which warms the security filter chain, Spring MVC and the view templates. Pages that
+ * need a signed-in user can't be requested here; they share the template engine and expression
+ * classes with the pages that are.
+ * <p>
+ * Spring Boot reports the application as ready only after all runners returned, so the readiness
+ * probe ({@code /actuator/health/readiness}) answers 503 until the warm-up is done or timed out.
+ * Failures are logged and never stop the application.
+ */
+@Component
+@ConditionalOnProperty(prefix = "warm-up", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner {
+
+    private final WarmUpConfiguration configuration;
+    private final PDFService pdfService;
+    private final ApplicationContext applicationContext;
+    private final Environment environment;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + configuration.getTimeout().toNanos();
+
+        // Without an id the renders bypass the PDF cache
+        Resume resume = syntheticResume();
+        int renders = 0;
+        for (int i = 0; i < configuration.getIterations() && System.nanoTime() < deadline; i++) {
+            for (String template : PDFService.TEMPLATES) {
+                try {
+                    pdfService.generatePDF(resume, template);
+                    renders++;
+                } catch (RuntimeException e) {
+                    log.warn("Warm-up render of template {} failed", template, e);
+                }
+            }
+        }
+
+        int requests = requestPages(deadline);
+        log.info("Warm-up done in {} ms: {} PDF render(s), {} page request(s)",
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), renders, requests);
+        if (System.nanoTime() >= deadline) {
+            log.warn("Warm-up stopped after {}, the first requests may still be slow", configuration.getTimeout());
+        }
+    }
+
+    private int requestPages(long deadline) {
+        if (!(applicationContext instanceof WebServerApplicationContext webContext)
+                || webContext.getWebServer() == null || webContext.getWebServer().getPort() <= 0) {
+            return 0;
+        }
+        String baseUrl = "http://localhost:" + webContext.getWebServer().getPort()
+                + environment.getProperty("server.servlet.context-path", "");
+
+        int requests = 0;
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        for (int i = 0; i < configuration.getIterations() && System.nanoTime() < deadline; i++) {
+            for (String page : configuration.getPages()) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + page))
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() >= 400) {
+                        log.warn("Warm-up request of {} answered {}", page, response.statusCode());
+                    }
+                    requests++;
+                } catch (IOException e) {
+                    log.warn("Warm-up request of {} failed: {}", page, e.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return requests;
+                }
+            }
+        }
+        return requests;
+    }
+
+    // Fills every section, so each template renders all of its blocks
+    private static Resume syntheticResume() {
+        User user = new User();
+        user.setUsername("warm-up");
+        user.setFullName("Warm Up");
+        user.setEmail("warm-up@example.com");
+
+        Resume resume = new Resume();
+        resume.setTitle("Senior Software Engineer");
+        resume.setSummary("Engineer with a long track record of building and operating web applications.");
+        resume.setUser(user);
+
+        for (int i = 0; i < 3; i++) {
+            Experience experience = new Experience();
+            experience.setCompanyName("Company " + i);
+            experience.setJobTitle("Software Engineer");
+            experience.setStartDate(LocalDate.of(2015 + i * 3, 1, 1));
+            experience.setEndDate(i < 2 ? LocalDate.of(2017 + i * 3, 12, 31) : null);
+            experience.setCurrentlyWorking(i == 2);
+            experience.setDescription("Designed, built and ran services used by thousands of customers.");
+            experience.setResume(resume);
+            Project project = new Project();
+            project.setName("Platform migration");
+            project.setDescription("Moved a legacy system to a new platform.");
+            project.setTechnologies("Java, Spring Boot, MySQL");
+            project.setUrl("https://example.com");
+            project.setExperience(experience);
+            experience.getProjects().add(project);
+            resume.getExperiences().add(experience);
+        }
+
+        Education education = new Education();
+        education.setInstitution("State University");
+        education.setDegree("BSc");
+        education.setFieldOfStudy("Computer Science");
+        education.setStartDate(LocalDate.of(2011, 9, 1));
+        education.setEndDate(LocalDate.of(2014, 6, 30));
+        education.setDescription("Thesis on distributed systems.");
+        education.setResume(resume);
+        resume.getEducations().add(education);
+
+        for (String name : new String[]{"Java", "Spring", "SQL", "Docker"}) {
+            Skill skill = new Skill();
+            skill.setName(name);
+            skill.setProficiencyLevel(4);
+            skill.setResume(resume);
+            resume.getSkills().add(skill);
+        }
+
+        Certification certification = new Certification();
+        certification.setName("Cloud Architect");
+        certification.setIssuingOrganization("Cloud Vendor");
+        certification.setIssueDate(LocalDate.of(2020, 1, 1));
+        certification.setExpirationDate(LocalDate.of(2026, 1, 1));
+        certification.setCredentialId("CA-0001");
+        certification.setCredentialUrl("https://example.com/credential");
+        certification.setResume(resume);
+        resume.getCertifications().add(certification);
+
+        Language language = new Language();
+        language.setName("English");
+        language.setProficiencyLevel("Native");
+        language.setResume(resume);
+        resume.getLanguages().add(language);
+
+        Hobby hobby = new Hobby();
+        hobby.setName("Chess");
+        hobby.setDescription("Club tournaments");
+        hobby.setResume(resume);
+        resume.getHobbies().add(hobby);
+
+        return resume;
+    }
+}
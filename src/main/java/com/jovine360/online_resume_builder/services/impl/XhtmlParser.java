@@ -0,0 +1,56 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import org.w3c.dom.Document;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Parses the XHTML produced by the PDF templates into a DOM for the renderer.
+ * <p>
+ * {@code ITextRenderer.setDocumentFromString} sets up a new SAX reader and identity transformer for
+ * every document, which costs more than the parse itself. Document builders are instead created
+ * once and reused; a builder is used by one thread at a time and there are never more of them
+ * than concurrent renders.
+ */
+public class XhtmlParser {
+
+    private final DocumentBuilderFactory factory;
+    private final Queue<DocumentBuilder> builders = new ConcurrentLinkedQueue<>();
+
+    public XhtmlParser() {
+        factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setExpandEntityReferences(false);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+    }
+
+    /**
+     * Parse an XHTML document
+     *
+     * @param xhtml The document markup
+     * @return The parsed document
+     */
+    public Document parse(String xhtml) throws IOException, SAXException, ParserConfigurationException {
+        DocumentBuilder builder = builders.poll();
+        if (builder == null) {
+            builder = factory.newDocumentBuilder();
+        }
+        // Report malformed markup through the exception only, not on stderr
+        builder.setErrorHandler(new DefaultHandler());
+        Document document = builder.parse(new InputSource(new StringReader(xhtml)));
+        builder.reset();
+        builders.offer(builder);
+        return document;
+    }
+}
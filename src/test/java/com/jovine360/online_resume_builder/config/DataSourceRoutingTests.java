@@ -0,0 +1,153 @@
+package com.jovine360.online_resume_builder.config;
+
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between two embedded databases standing in for a primary and its replica. The replica gets
+ * the primary's schema but no replication, so every read shows which database answered it.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=" + DataSourceRoutingTests.PRIMARY_URL,
+		"datasource.routing.enabled=true",
+		"datasource.routing.replicas[0].url=" + DataSourceRoutingTests.REPLICA_URL + ";IFEXISTS=TRUE",
+		"datasource.routing.replica-connection-timeout=500ms",
+		"datasource.routing.health-check-interval=1h",
+		"datasource.routing.read-your-writes-window=1m"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class DataSourceRoutingTests {
+
+	static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	// The replica only accepts connections once it exists, so it can be taken down for good
+	private static final JdbcTemplate replica = new JdbcTemplate(
+			new SingleConnectionDataSource(REPLICA_URL, "sa", "", true));
+
+	static {
+		replica.execute("SELECT 1");
+	}
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ReadWriteRoutingDataSource routingDataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private CustomUserDetailsService userDetailsService;
+
+	private TransactionTemplate reads;
+	private TransactionTemplate writes;
+
+	@BeforeAll
+	void copySchema() {
+		JdbcTemplate primary = new JdbcTemplate(new SingleConnectionDataSource(PRIMARY_URL, "sa", "", true));
+		List<String> schema = primary.queryForList("SCRIPT NODATA", String.class);
+		schema.forEach(replica::execute);
+		routingDataSource.checkReplicas();
+
+		reads = new TransactionTemplate(transactionManager);
+		reads.setReadOnly(true);
+		writes = new TransactionTemplate(transactionManager);
+
+		writes.executeWithoutResult(status -> userRepository.save(user("on-primary")));
+		replica.update("INSERT INTO users (username, password, email, full_name) VALUES (?, ?, ?, ?)",
+				"on-replica", "secret", "on-replica@example.com", "On Replica");
+	}
+
+	@AfterEach
+	void clearUser() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	@Order(1)
+	void readOnlyTransactionsReadTheReplica() {
+		assertThat(find(reads, "on-replica")).isPresent();
+		assertThat(find(reads, "on-primary")).isEmpty();
+	}
+
+	@Test
+	@Order(2)
+	void writeTransactionsUseThePrimary() {
+		assertThat(find(writes, "on-primary")).isPresent();
+		assertThat(find(writes, "on-replica")).isEmpty();
+	}
+
+	@Test
+	@Order(3)
+	void usersReadTheirOwnWrites() {
+		signIn(1L);
+		writes.executeWithoutResult(status -> userRepository.save(user("written")));
+		assertThat(find(reads, "written")).isPresent();
+
+		// Other users still read the replica, which never received the write
+		signIn(2L);
+		assertThat(find(reads, "written")).isEmpty();
+	}
+
+	@Test
+	@Order(4)
+	void registeredUsersCanSignInRightAway() {
+		// Registering is anonymous, so the write can't be tied to the user that signs in next
+		writes.executeWithoutResult(status -> userRepository.save(user("registered")));
+		assertThat(userDetailsService.loadUserByUsername("registered").getUsername()).isEqualTo("registered");
+		assertThat(userDetailsService.loadUserByUsername("registered@example.com").getUsername()).isEqualTo("registered");
+	}
+
+	@Test
+	@Order(5)
+	void readsFallBackToThePrimaryWhenTheReplicaIsDown() {
+		replica.execute("SHUTDOWN");
+		routingDataSource.checkReplicas();
+
+		assertThat(find(reads, "on-primary")).isPresent();
+	}
+
+	private Optional<User> find(TransactionTemplate transaction, String username) {
+		return transaction.execute(status -> userRepository.findByUsername(username));
+	}
+
+	private static void signIn(Long userId) {
+		UserPrincipal principal = new UserPrincipal(userId, "user-" + userId, "secret", "User", List.of());
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+	}
+
+	private static User user(String username) {
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword("secret");
+		user.setEmail(username + "@example.com");
+		user.setFullName(username);
+		return user;
+	}
+}
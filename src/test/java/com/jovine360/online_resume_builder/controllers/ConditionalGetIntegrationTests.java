@@ -0,0 +1,182 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.StatementCounter;
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Checks that unchanged resumes are answered with 304 from their update time alone, and that
+ * every edit, and for pages a new session, leads to a full response again.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ConditionalGetIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ResumeService resumeService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private UserPrincipal principal;
+	private MockHttpSession session;
+	private Long resumeId;
+
+	@BeforeAll
+	void seed() {
+		User user = new User();
+		user.setUsername("conditional-get");
+		user.setPassword("{noop}secret");
+		user.setEmail("conditional-get@example.com");
+		user.setFullName("Conditional Get");
+		user = userRepository.save(user);
+		principal = new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getFullName(),
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+		Resume resume = new Resume();
+		resume.setTitle("Conditional");
+		resume.setSummary("Summary");
+		resumeId = resumeService.createResume(resume, user.getId()).getId();
+	}
+
+	@BeforeEach
+	void reset() {
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+		session = new MockHttpSession();
+	}
+
+	@Test
+	void unchangedViewIsNotModified() throws Exception {
+		MockHttpServletResponse first = perform(get("/resumes/{id}", resumeId));
+		assertThat(first.getStatus()).isEqualTo(200);
+		assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache, private");
+		String eTag = first.getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).startsWith("\"" + resumeId + "-");
+
+		// Cold cache: only the update time is read
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+		assertNotModified(get("/resumes/{id}", resumeId).header(HttpHeaders.IF_NONE_MATCH, eTag), 1);
+
+		// Other templates and pages are other representations
+		assertThat(perform(get("/resumes/{id}", resumeId).param("template", "modern")
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)).getStatus()).isEqualTo(200);
+		assertThat(perform(get("/resumes/{id}/preview", resumeId)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag)).getStatus()).isEqualTo(200);
+	}
+
+	@Test
+	void lastModifiedIsChecked() throws Exception {
+		String lastModified = perform(get("/resumes/{id}/preview", resumeId)).getHeader(HttpHeaders.LAST_MODIFIED);
+		assertThat(lastModified).isNotNull();
+		assertNotModified(get("/resumes/{id}/preview", resumeId).header(HttpHeaders.IF_MODIFIED_SINCE, lastModified), 1);
+	}
+
+	@Test
+	void newSessionGetsFullPage() throws Exception {
+		String eTag = perform(get("/resumes/{id}", resumeId)).getHeader(HttpHeaders.ETAG);
+		session = new MockHttpSession();
+		assertThat(perform(get("/resumes/{id}", resumeId).header(HttpHeaders.IF_NONE_MATCH, eTag)).getStatus())
+				.isEqualTo(200);
+	}
+
+	@Test
+	void unchangedPdfIsNotRenderedAgain() throws Exception {
+		MvcResult first = mockMvc.perform(get("/resumes/{id}/download", resumeId).with(user(principal))).andReturn();
+		MockHttpServletResponse response = mockMvc.perform(asyncDispatch(first)).andReturn().getResponse();
+		assertThat(response.getStatus()).isEqualTo(200);
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).isNotNull();
+
+		// A new session gets the same PDF
+		session = new MockHttpSession();
+		assertNotModified(get("/resumes/{id}/download", resumeId).header(HttpHeaders.IF_NONE_MATCH, eTag), 0);
+	}
+
+	@Test
+	void editChangesValidators() throws Exception {
+		String eTag = perform(get("/resumes/{id}", resumeId)).getHeader(HttpHeaders.ETAG);
+
+		Resume edited = new Resume();
+		edited.setId(resumeId);
+		edited.setTitle("Conditional, edited " + System.nanoTime());
+		edited.setSummary("Summary");
+		resumeService.updateResume(edited);
+
+		MockHttpServletResponse response = perform(get("/resumes/{id}", resumeId).header(HttpHeaders.IF_NONE_MATCH, eTag));
+		assertThat(response.getStatus()).isEqualTo(200);
+		assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(eTag);
+	}
+
+	@Test
+	void readDuringSaveIsNotCached() throws Exception {
+		String eTag = perform(get("/resumes/{id}", resumeId)).getHeader(HttpHeaders.ETAG);
+		String title = "Conditional, saved " + System.nanoTime();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Resume edited = new Resume();
+			edited.setId(resumeId);
+			edited.setTitle(title);
+			edited.setSummary("Summary");
+			resumeService.updateResume(edited);
+			// Caches the resume as committed so far, before this save commits
+			CompletableFuture.runAsync(() -> resumeService.findByIdWithDetails(resumeId)).join();
+		});
+
+		assertThat(resumeService.findByIdWithDetails(resumeId).orElseThrow().getTitle()).isEqualTo(title);
+		assertThat(perform(get("/resumes/{id}", resumeId).header(HttpHeaders.IF_NONE_MATCH, eTag)).getStatus())
+				.isEqualTo(200);
+	}
+
+	private void assertNotModified(MockHttpServletRequestBuilder request, int maxStatements) throws Exception {
+		try (StatementCounter.Scope scope = StatementCounter.open("test", Integer.MAX_VALUE, false)) {
+			MvcResult result = mockMvc.perform(request.session(session).with(user(principal))).andReturn();
+			assertThat(result.getRequest().isAsyncStarted()).isFalse();
+			assertThat(result.getResponse().getStatus()).isEqualTo(304);
+			assertThat(result.getResponse().getContentLength()).isZero();
+			assertThat(scope.getCount()).isLessThanOrEqualTo(maxStatements);
+		}
+	}
+
+	private MockHttpServletResponse perform(MockHttpServletRequestBuilder request) throws Exception {
+		return mockMvc.perform(request.session(session).with(user(principal))).andReturn().getResponse();
+	}
+}
@@ -0,0 +1,86 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.EntityCacheConfiguration;
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+
+/**
+ * Form login by username or email, and the re-hashing of passwords stored with another BCrypt cost.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Test
+	void legacyHashIsUpgradedOnLogin() throws Exception {
+		// Stored before hashes carried an {id} prefix, at a cost below the configured one
+		String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+		User user = save("legacy-login", legacyHash);
+
+		mockMvc.perform(formLogin().user(user.getEmail()).password("secret"))
+				.andExpect(authenticated().withUsername("legacy-login"));
+
+		String upgraded = userRepository.findById(user.getId()).orElseThrow().getPassword();
+		assertThat(upgraded).startsWith("{bcrypt}$2a$10$");
+
+		// The new hash is used from now on, and signing in by username works as well
+		mockMvc.perform(formLogin().user("legacy-login").password("secret"))
+				.andExpect(authenticated().withUsername("legacy-login"));
+		assertThat(userRepository.findById(user.getId()).orElseThrow().getPassword()).isEqualTo(upgraded);
+	}
+
+	@Test
+	void upgradeKeepsOtherUsersCached() throws Exception {
+		save("cached-login", "{bcrypt}" + new BCryptPasswordEncoder(10).encode("secret"));
+		mockMvc.perform(formLogin().user("cached-login").password("secret")).andExpect(authenticated());
+		User upgraded = save("upgraded-login", new BCryptPasswordEncoder(4).encode("secret"));
+
+		mockMvc.perform(formLogin().user(upgraded.getEmail()).password("secret")).andExpect(authenticated());
+
+		Cache users = cacheManager.getCache(EntityCacheConfiguration.USERS);
+		assertThat(users.get("login:cached-login")).isNotNull();
+		// Signing in again must see the new hash, not the cached old one
+		assertThat(users.get("login:" + upgraded.getEmail())).isNull();
+	}
+
+	@Test
+	void wrongPasswordIsRejected() throws Exception {
+		save("wrong-password", new BCryptPasswordEncoder(4).encode("secret"));
+
+		mockMvc.perform(formLogin().user("wrong-password").password("guess"))
+				.andExpect(unauthenticated());
+	}
+
+	private User save(String username, String password) {
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword(password);
+		user.setEmail(username + "@example.com");
+		user.setFullName("Login Test");
+		return userRepository.save(user);
+	}
+}
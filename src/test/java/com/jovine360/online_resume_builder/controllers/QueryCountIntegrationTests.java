@@ -0,0 +1,198 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.EntityCacheConfiguration;
+import com.jovine360.online_resume_builder.config.StatementCounter;
+import com.jovine360.online_resume_builder.config.StatementCounter.StatementBudgetExceededException;
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.models.*;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the number of SQL statements of the main pages against N+1 regressions. Every page is
+ * requested for a small and a very large resume, which must cost the same number of statements.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryCountIntegrationTests {
+
+	// Resume with its owner, six section subselects and the projects subselect
+	private static final int RESUME_STATEMENTS = 8;
+
+	// Summary page and resume count
+	private static final int DASHBOARD_STATEMENTS = 2;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ResumeService resumeService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private UserPrincipal principal;
+	private Long smallResumeId;
+	private Long largeResumeId;
+
+	@BeforeAll
+	void seed() {
+		User user = new User();
+		user.setUsername("query-count");
+		user.setPassword("{noop}secret");
+		user.setEmail("query-count@example.com");
+		user.setFullName("Query Count");
+		user = userRepository.save(user);
+		principal = new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getFullName(),
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+		smallResumeId = resumeService.createResume(resume("Small", 1, 1), user.getId()).getId();
+		largeResumeId = resumeService.createResume(resume("Large", 60, 4), user.getId()).getId();
+		for (int i = 0; i < 40; i++) {
+			resumeService.createResume(resume("Filler " + i, 3, 2), user.getId());
+		}
+	}
+
+	@BeforeEach
+	void clearCaches() {
+		// Measure cold loads, not cache hits
+		cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+	}
+
+	@Test
+	void dashboardRunsConstantStatements() throws Exception {
+		assertThat(statements(get("/dashboard"))).isEqualTo(DASHBOARD_STATEMENTS);
+	}
+
+	@Test
+	void viewRunsConstantStatements() throws Exception {
+		assertThat(statements(get("/resumes/{id}", smallResumeId))).isLessThanOrEqualTo(RESUME_STATEMENTS);
+		assertThat(statements(get("/resumes/{id}", largeResumeId))).isLessThanOrEqualTo(RESUME_STATEMENTS);
+	}
+
+	@Test
+	void previewRunsConstantStatements() throws Exception {
+		assertThat(statements(get("/resumes/{id}/preview", smallResumeId))).isLessThanOrEqualTo(RESUME_STATEMENTS);
+		assertThat(statements(get("/resumes/{id}/preview", largeResumeId))).isLessThanOrEqualTo(RESUME_STATEMENTS);
+	}
+
+	@Test
+	void downloadRunsConstantStatements() throws Exception {
+		assertThat(statements(get("/resumes/{id}/download", smallResumeId))).isLessThanOrEqualTo(RESUME_STATEMENTS);
+		assertThat(statements(get("/resumes/{id}/download", largeResumeId))).isLessThanOrEqualTo(RESUME_STATEMENTS);
+	}
+
+	@Test
+	void cachedResumeRunsNoStatements() throws Exception {
+		statements(get("/resumes/{id}", largeResumeId));
+		assertThat(statements(get("/resumes/{id}", largeResumeId))).isZero();
+	}
+
+	@Test
+	void cachedResumeHoldsNoPassword() throws Exception {
+		statements(get("/resumes/{id}", largeResumeId));
+		Resume cached = cacheManager.getCache(EntityCacheConfiguration.RESUMES).get(largeResumeId, Resume.class);
+		assertThat(cached.getUser().getPassword()).isNull();
+		assertThat(cached.getUser().getFullName()).isEqualTo("Query Count");
+		assertThat(cached.getUser().getEmail()).isEqualTo("query-count@example.com");
+	}
+
+	@Test
+	void exceedingBudgetFails() {
+		assertThatThrownBy(() -> {
+			try (StatementCounter.Scope ignored = StatementCounter.open("test", 1, true)) {
+				mockMvc.perform(get("/resumes/{id}", largeResumeId).with(user(principal)));
+			}
+		}).hasRootCauseInstanceOf(StatementBudgetExceededException.class);
+	}
+
+	private int statements(MockHttpServletRequestBuilder request) throws Exception {
+		try (StatementCounter.Scope scope = StatementCounter.open("test", Integer.MAX_VALUE, false)) {
+			MvcResult result = mockMvc.perform(request.with(user(principal))).andReturn();
+			if (result.getRequest().isAsyncStarted()) {
+				// Streamed responses, such as the PDF download
+				mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+			} else {
+				assertThat(result.getResponse().getStatus()).isEqualTo(200);
+			}
+			return scope.getCount();
+		}
+	}
+
+	private static Resume resume(String title, int experiences, int entries) {
+		Resume resume = new Resume();
+		resume.setTitle(title);
+		resume.setSummary("Summary of " + title);
+		for (int i = 0; i < experiences; i++) {
+			Experience experience = new Experience();
+			experience.setCompanyName("Company " + i);
+			experience.setJobTitle("Engineer");
+			experience.setStartDate(LocalDate.of(2015, 1, 1).plusMonths(i));
+			experience.setResume(resume);
+			for (int j = 0; j < 3; j++) {
+				Project project = new Project();
+				project.setName("Project " + j);
+				project.setExperience(experience);
+				experience.getProjects().add(project);
+			}
+			resume.getExperiences().add(experience);
+		}
+		for (int i = 0; i < entries; i++) {
+			Education education = new Education();
+			education.setInstitution("University " + i);
+			education.setDegree("BSc");
+			education.setResume(resume);
+			resume.getEducations().add(education);
+
+			Skill skill = new Skill();
+			skill.setName("Skill " + i);
+			skill.setProficiencyLevel(3);
+			skill.setResume(resume);
+			resume.getSkills().add(skill);
+
+			Certification certification = new Certification();
+			certification.setName("Certification " + i);
+			certification.setResume(resume);
+			resume.getCertifications().add(certification);
+
+			Language language = new Language();
+			language.setName("Language " + i);
+			language.setResume(resume);
+			resume.getLanguages().add(language);
+
+			Hobby hobby = new Hobby();
+			hobby.setName("Hobby " + i);
+			hobby.setResume(resume);
+			resume.getHobbies().add(hobby);
+		}
+		return resume;
+	}
+}
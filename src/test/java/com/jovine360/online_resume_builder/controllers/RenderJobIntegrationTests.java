@@ -0,0 +1,96 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import com.jovine360.online_resume_builder.services.impl.PdfRenderJobService;
+import com.jovine360.online_resume_builder.services.impl.PdfRenderJobService.RenderJob;
+import com.jovine360.online_resume_builder.services.impl.PdfRenderJobService.Status;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Checks that finished render jobs are bounded per user and hand out their PDF only once.
+ */
+@SpringBootTest(properties = "pdf.render-jobs.max-jobs-per-user=2")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RenderJobIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ResumeService resumeService;
+
+	@Autowired
+	private PdfRenderJobService renderJobService;
+
+	private UserPrincipal principal;
+	private Long resumeId;
+
+	@BeforeAll
+	void seed() {
+		User user = new User();
+		user.setUsername("render-jobs");
+		user.setPassword("{noop}secret");
+		user.setEmail("render-jobs@example.com");
+		user.setFullName("Render Jobs");
+		user = userRepository.save(user);
+		principal = new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getFullName(),
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+		Resume resume = new Resume();
+		resume.setTitle("Render Jobs");
+		resume.setSummary("Summary");
+		resumeId = resumeService.createResume(resume, user.getId()).getId();
+	}
+
+	@Test
+	void jobsAreBoundedPerUserAndDownloadedOnce() throws Exception {
+		RenderJob first = renderJobService.submit(resumeId, principal.getId(), "default").orElseThrow();
+		RenderJob second = renderJobService.submit(resumeId, principal.getId(), "default").orElseThrow();
+		assertThat(renderJobService.submit(resumeId, principal.getId(), "default")).isEmpty();
+		// Other users are not affected
+		assertThat(renderJobService.submit(resumeId, principal.getId() + 1, "default")).isPresent();
+
+		awaitCompletion(first);
+		awaitCompletion(second);
+		String result = "/resumes/render-jobs/" + first.getId() + "/result";
+		assertThat(mockMvc.perform(get(result).with(user(principal))).andReturn().getResponse().getContentAsByteArray())
+				.startsWith("%PDF".getBytes());
+		assertThat(first.getStatus()).isEqualTo(Status.DOWNLOADED);
+		assertThat(mockMvc.perform(get(result).with(user(principal))).andReturn().getResponse().getStatus())
+				.isEqualTo(410);
+
+		// A downloaded job no longer counts against the user
+		assertThat(renderJobService.submit(resumeId, principal.getId(), "default")).isPresent();
+	}
+
+	private static void awaitCompletion(RenderJob job) throws InterruptedException {
+		for (int i = 0; i < 600 && job.getStatus() != Status.COMPLETED; i++) {
+			assertThat(job.getStatus()).isNotEqualTo(Status.FAILED);
+			Thread.sleep(100);
+		}
+		assertThat(job.getStatus()).isEqualTo(Status.COMPLETED);
+	}
+}
@@ -0,0 +1,277 @@
+package com.jovine360.online_resume_builder.controllers;
+
+import com.jovine360.online_resume_builder.config.EntityCacheConfiguration;
+import com.jovine360.online_resume_builder.config.StatementCounter;
+import com.jovine360.online_resume_builder.config.UserPrincipal;
+import com.jovine360.online_resume_builder.models.Resume;
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.ResumeRepository;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import com.jovine360.online_resume_builder.services.impl.SharedResumeService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Checks that shared links are served without login, session or queries once rendered, follow
+ * every save, and stop working when revoked.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SharedResumeIntegrationTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ResumeRepository resumeRepository;
+
+	@Autowired
+	private ResumeService resumeService;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private SharedResumeService sharedResumeService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+	private UserPrincipal principal;
+	private Long userId;
+
+	@BeforeAll
+	void seed() {
+		User user = new User();
+		user.setUsername("shared-resume");
+		user.setPassword("{noop}secret");
+		user.setEmail("shared-resume@example.com");
+		user.setFullName("Shared Resume");
+		user = userRepository.save(user);
+		userId = user.getId();
+		principal = new UserPrincipal(user.getId(), user.getUsername(), user.getPassword(), user.getFullName(),
+				List.of(new SimpleGrantedAuthority("ROLE_USER")));
+	}
+
+	@Test
+	void sharedResumeIsServedFromSnapshot() throws Exception {
+		Long resumeId = createResume("Shared Title");
+		String token = share(resumeId);
+
+		MockHttpServletResponse response = assertServedFromSnapshot(get("/resumes/shared/{token}", token));
+		assertThat(response.getContentType()).startsWith("text/html");
+		assertThat(response.getContentAsString()).contains("Shared Title");
+		assertThat(response.getHeader("X-Robots-Tag")).isEqualTo("noindex");
+		assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+		assertThat(response.getHeader("X-Frame-Options")).isEqualTo("DENY");
+		assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("no-cache, public");
+
+		String eTag = response.getHeader(HttpHeaders.ETAG);
+		assertThat(mockMvc.perform(get("/resumes/shared/{token}", token).header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andReturn().getResponse().getStatus()).isEqualTo(304);
+	}
+
+	@Test
+	void snapshotFollowsSaves() throws Exception {
+		Long resumeId = createResume("Before Save");
+		String token = share(resumeId);
+
+		Resume edited = new Resume();
+		edited.setId(resumeId);
+		edited.setTitle("After Save");
+		edited.setSummary("Summary");
+		resumeService.updateResume(edited);
+
+		assertThat(assertServedFromSnapshot(get("/resumes/shared/{token}", token)).getContentAsString())
+				.contains("After Save")
+				.doesNotContain("Before Save");
+	}
+
+	@Test
+	void evictedSnapshotIsRenderedAgain() throws Exception {
+		Long resumeId = createResume("Not Kept");
+		String token = SharedResumeService.newToken();
+		resumeRepository.updateShareToken(resumeId, token);
+
+		assertThat(mockMvc.perform(get("/resumes/shared/{token}", token)).andReturn().getResponse().getStatus())
+				.isEqualTo(200);
+		assertServedFromSnapshot(get("/resumes/shared/{token}", token));
+	}
+
+	@Test
+	void pdfIsKeptWithSnapshot() throws Exception {
+		Long resumeId = createResume("Shared PDF");
+		String token = share(resumeId);
+
+		MockHttpServletResponse first = mockMvc.perform(get("/resumes/shared/{token}/pdf", token)).andReturn().getResponse();
+		assertThat(first.getStatus()).isEqualTo(200);
+		assertThat(first.getContentType()).isEqualTo("application/pdf");
+
+		assertThat(assertServedFromSnapshot(get("/resumes/shared/{token}/pdf", token)).getContentAsByteArray())
+				.isEqualTo(first.getContentAsByteArray());
+	}
+
+	@Test
+	void concurrentDownloadsRenderOnce() throws Exception {
+		Long resumeId = createResume("Downloaded Together");
+		String token = share(resumeId);
+		long rendered = renderedPdfs();
+
+		List<CompletableFuture<byte[]>> downloads = IntStream.range(0, 4)
+				.mapToObj(i -> CompletableFuture.supplyAsync(
+						() -> sharedResumeService.findWithPdf(token).orElseThrow().pdf(), executor))
+				.toList();
+		byte[] first = downloads.get(0).join();
+		downloads.forEach(download -> assertThat(download.join()).isSameAs(first));
+		assertThat(renderedPdfs()).isEqualTo(rendered + 1);
+	}
+
+	@Test
+	void pdfOfDeletedResumeIsNotFound() throws Exception {
+		Long resumeId = createResume("Deleted Behind The Snapshot");
+		String token = share(resumeId);
+		// Deleted without dropping the snapshot, as by another instance
+		resumeRepository.deleteById(resumeId);
+		cacheManager.getCache(EntityCacheConfiguration.RESUMES).evict(resumeId);
+
+		assertThat(status(get("/resumes/shared/{token}/pdf", token))).isEqualTo(404);
+		assertThat(status(get("/resumes/shared/{token}", token))).isEqualTo(404);
+	}
+
+	@Test
+	void unknownTokensAreRemembered() throws Exception {
+		String token = SharedResumeService.newToken();
+		assertThat(status(get("/resumes/shared/{token}", token))).isEqualTo(404);
+
+		try (StatementCounter.Scope scope = StatementCounter.open("test", Integer.MAX_VALUE, false)) {
+			assertThat(status(get("/resumes/shared/{token}", token))).isEqualTo(404);
+			assertThat(status(get("/resumes/shared/{token}/pdf", token))).isEqualTo(404);
+			assertThat(scope.getCount()).isZero();
+		}
+	}
+
+	@Test
+	void revokedLinksStopWorking() throws Exception {
+		Long resumeId = createResume("Revoked");
+		String first = share(resumeId);
+		String second = share(resumeId);
+		assertThat(status(get("/resumes/shared/{token}", first))).isEqualTo(404);
+		assertThat(status(get("/resumes/shared/{token}", second))).isEqualTo(200);
+
+		mockMvc.perform(post("/resumes/{id}/share/revoke", resumeId).with(user(principal)).with(csrf()));
+		assertThat(status(get("/resumes/shared/{token}", second))).isEqualTo(404);
+		assertThat(status(get("/resumes/shared/{token}/pdf", second))).isEqualTo(404);
+		assertThat(status(get("/resumes/shared/{token}", "not-a-token"))).isEqualTo(404);
+	}
+
+	@Test
+	void revokeDuringEditStaysRevoked() throws Exception {
+		Long resumeId = createResume("Edited While Revoked");
+		String token = share(resumeId);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Resume edited = new Resume();
+			edited.setId(resumeId);
+			edited.setTitle("Edited After Revoke");
+			resumeService.updateResume(edited);
+			// Commits on its own connection while the edit is still open
+			CompletableFuture.runAsync(() -> resumeService.unshareResume(resumeId)).join();
+		});
+
+		assertThat(resumeRepository.findShareTokenById(resumeId)).isEmpty();
+		assertThat(status(get("/resumes/shared/{token}", token))).isEqualTo(404);
+	}
+
+	@Test
+	void rolledBackEditIsNotPublished() throws Exception {
+		Long resumeId = createResume("Committed Title");
+		String token = share(resumeId);
+
+		transactionTemplate.executeWithoutResult(status -> {
+			Resume edited = new Resume();
+			edited.setId(resumeId);
+			edited.setTitle("Rolled Back Title");
+			resumeService.updateResume(edited);
+			status.setRollbackOnly();
+		});
+
+		assertThat(mockMvc.perform(get("/resumes/shared/{token}", token)).andReturn().getResponse().getContentAsString())
+				.contains("Committed Title")
+				.doesNotContain("Rolled Back Title");
+	}
+
+	@AfterAll
+	void shutdown() {
+		executor.shutdown();
+	}
+
+	private MockHttpServletResponse assertServedFromSnapshot(MockHttpServletRequestBuilder request) throws Exception {
+		try (StatementCounter.Scope scope = StatementCounter.open("test", Integer.MAX_VALUE, false)) {
+			MvcResult result = mockMvc.perform(request).andReturn();
+			assertThat(result.getResponse().getStatus()).isEqualTo(200);
+			assertThat(result.getRequest().getSession(false)).isNull();
+			assertThat(scope.getCount()).isZero();
+			return result.getResponse();
+		}
+	}
+
+	private long renderedPdfs() {
+		DistributionSummary sizes = meterRegistry.find("pdf.output.size").summary();
+		return sizes == null ? 0 : sizes.count();
+	}
+
+	private int status(MockHttpServletRequestBuilder request) throws Exception {
+		return mockMvc.perform(request).andReturn().getResponse().getStatus();
+	}
+
+	private String share(Long resumeId) throws Exception {
+		mockMvc.perform(post("/resumes/{id}/share", resumeId).with(user(principal)).with(csrf()));
+		return resumeRepository.findShareTokenById(resumeId).orElseThrow();
+	}
+
+	private Long createResume(String title) {
+		Resume resume = new Resume();
+		resume.setTitle(title);
+		resume.setSummary("Summary");
+		return resumeService.createResume(resume, userId).getId();
+	}
+}
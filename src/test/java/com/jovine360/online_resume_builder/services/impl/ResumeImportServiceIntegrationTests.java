@@ -0,0 +1,154 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.models.User;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import com.jovine360.online_resume_builder.services.impl.ResumeImportService.ImportReport;
+import com.jovine360.online_resume_builder.services.impl.ResumeImportService.RecordError;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Imports into the embedded database with chunks of three resumes and batches of two rows, so
+ * every import spans several chunks and batches.
+ */
+@SpringBootTest(properties = {
+		"resume.import.chunk-size=3",
+		"resume.import.batch-size=2"
+})
+@ActiveProfiles("test")
+class ResumeImportServiceIntegrationTests {
+
+	@Autowired
+	private ResumeImportService importService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void arrayIsImported() throws IOException {
+		Long userId = createUser("import-array");
+		ImportReport report = importJson(userId, "[" + resume("A") + "," + resume("B") + "," + resume("C") + ","
+				+ resume("D") + "]");
+
+		assertThat(report.read()).isEqualTo(4);
+		assertThat(report.imported()).isEqualTo(4);
+		assertThat(report.failed()).isZero();
+		assertThat(report.fatalError()).isNull();
+		assertThat(skillsByResume(userId)).containsOnly(
+				entry("A", "Skill of A"), entry("B", "Skill of B"), entry("C", "Skill of C"), entry("D", "Skill of D"));
+	}
+
+	@Test
+	void singleResumeIsImported() throws IOException {
+		Long userId = createUser("import-single");
+		ImportReport report = importJson(userId, resume("Single"));
+
+		assertThat(report.imported()).isEqualTo(1);
+		assertThat(skillsByResume(userId)).containsOnly(entry("Single", "Skill of Single"));
+	}
+
+	@Test
+	void jsonLinesAreImported() throws IOException {
+		Long userId = createUser("import-lines");
+		ImportReport report = importJson(userId, resume("First") + "\n" + resume("Second") + "\n");
+
+		assertThat(report.imported()).isEqualTo(2);
+		assertThat(skillsByResume(userId)).containsOnly(
+				entry("First", "Skill of First"), entry("Second", "Skill of Second"));
+	}
+
+	@Test
+	void childrenGetTheirParentsGeneratedKeys() throws IOException {
+		Long userId = createUser("import-keys");
+		importJson(userId, "[" + resume("One") + "," + resume("Two") + "," + resume("Three") + "]");
+
+		// Each project belongs to the work entry of its own resume
+		List<Map<String, Object>> projects = jdbcTemplate.queryForList(
+				"select r.title, e.company_name, p.name from projects p"
+						+ " join experiences e on e.id = p.experience_id"
+						+ " join resumes r on r.id = e.resume_id where r.user_id = ? order by r.id", userId);
+		assertThat(projects).extracting(row -> row.get("TITLE") + "/" + row.get("COMPANY_NAME") + "/" + row.get("NAME"))
+				.containsExactly("One/Company of One/Project of One", "Two/Company of Two/Project of Two",
+						"Three/Company of Three/Project of Three");
+	}
+
+	@Test
+	void failedChunkIsRetriedOneResumeAtATime() throws IOException {
+		Long userId = createUser("import-fallback");
+		// Valid to the validator, too long for the skills.name column
+		String tooLong = resume("Broken").replace("Skill of Broken", "x".repeat(300));
+		ImportReport report = importJson(userId, "[" + resume("Before") + "," + tooLong + "," + resume("After") + ","
+				+ resume("Next chunk") + "]");
+
+		assertThat(report.read()).isEqualTo(4);
+		assertThat(report.imported()).isEqualTo(3);
+		assertThat(report.failed()).isEqualTo(1);
+		assertThat(report.errors()).extracting(RecordError::record).containsExactly(2);
+
+		// The ids generated by the rolled back chunk were replaced by the ones of the retry
+		assertThat(skillsByResume(userId)).containsOnly(entry("Before", "Skill of Before"),
+				entry("After", "Skill of After"), entry("Next chunk", "Skill of Next chunk"));
+		assertThat(jdbcTemplate.queryForObject("select count(*) from skills s join resumes r on r.id = s.resume_id"
+				+ " where r.user_id = ?", Integer.class, userId)).isEqualTo(3);
+	}
+
+	@Test
+	void malformedJsonKeepsTheRecordsBeforeIt() throws IOException {
+		Long userId = createUser("import-malformed");
+		ImportReport report = importJson(userId, "[" + resume("Kept") + ",\n" + resume("Also kept") + ",\n{\"basics\": ]");
+
+		assertThat(report.imported()).isEqualTo(2);
+		assertThat(report.fatalError()).startsWith("Malformed JSON at line 3");
+		assertThat(skillsByResume(userId)).containsOnly(
+				entry("Kept", "Skill of Kept"), entry("Also kept", "Skill of Also kept"));
+	}
+
+	private ImportReport importJson(Long userId, String json) throws IOException {
+		return importService.importJsonResumes(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), userId);
+	}
+
+	private Map<String, String> skillsByResume(Long userId) {
+		return jdbcTemplate.query("select r.title, s.name from resumes r join skills s on s.resume_id = r.id"
+						+ " where r.user_id = ?",
+				resultSet -> {
+					Map<String, String> skills = new HashMap<>();
+					while (resultSet.next()) {
+						skills.put(resultSet.getString(1), resultSet.getString(2));
+					}
+					return skills;
+				}, userId);
+	}
+
+	private Long createUser(String username) {
+		User user = new User();
+		user.setUsername(username);
+		user.setPassword("{noop}secret");
+		user.setEmail(username + "@example.com");
+		user.setFullName("Resume Import");
+		return userRepository.save(user).getId();
+	}
+
+	private static String resume(String name) {
+		return """
+				{"basics": {"name": "%1$s"},
+				 "work": [{"name": "Company of %1$s", "position": "Engineer", "startDate": "2020-01"}],
+				 "projects": [{"name": "Project of %1$s", "entity": "Company of %1$s"}],
+				 "skills": [{"name": "Skill of %1$s", "level": "Advanced"}]}""".formatted(name).replace("\n", " ");
+	}
+}
@@ -0,0 +1,245 @@
+package com.jovine360.online_resume_builder.services.impl;
+
+import com.jovine360.online_resume_builder.models.*;
+import com.jovine360.online_resume_builder.repository.ResumeRepository;
+import com.jovine360.online_resume_builder.repository.UserRepository;
+import com.jovine360.online_resume_builder.services.ResumeService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Checks that saving the edit form writes only the rows that changed, counted with Hibernate's
+ * statistics, and never the fields the form can't change.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ResumeMergerIntegrationTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private ResumeRepository resumeRepository;
+
+	@Autowired
+	private ResumeService resumeService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private User user;
+
+	@BeforeAll
+	void seed() {
+		user = new User();
+		user.setUsername("resume-merger");
+		user.setPassword("{noop}secret");
+		user.setEmail("resume-merger@example.com");
+		user.setFullName("Resume Merger");
+		user = userRepository.save(user);
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@BeforeEach
+	void clearStatistics() {
+		statistics.clear();
+	}
+
+	@Test
+	void unchangedSaveWritesNothing() {
+		Resume resume = createResume("Unchanged", "Java", "SQL");
+		LocalDateTime updatedAt = load(resume.getId()).getUpdatedAt();
+
+		save(form(load(resume.getId())));
+
+		assertWrites(0, 0, 0);
+		assertThat(load(resume.getId()).getUpdatedAt()).isEqualTo(updatedAt);
+	}
+
+	@Test
+	void changedFieldWritesOneUpdate() {
+		Resume resume = createResume("Before", "Java", "SQL");
+
+		Resume edited = form(load(resume.getId()));
+		edited.setTitle("After");
+		save(edited);
+
+		assertWrites(0, 1, 0);
+		assertThat(load(resume.getId()).getTitle()).isEqualTo("After");
+	}
+
+	@Test
+	void changedSectionUpdatesItsRowAndTheUpdateTime() {
+		Resume resume = createResume("Section", "Java", "SQL");
+
+		Resume edited = form(load(resume.getId()));
+		edited.getSkills().get(1).setName("PostgreSQL");
+		edited.getExperiences().get(0).getProjects().get(0).setUrl("https://example.com");
+		save(edited);
+
+		assertThat(updates(Skill.class)).isEqualTo(1);
+		assertThat(updates(Project.class)).isEqualTo(1);
+		assertThat(updates(Resume.class)).isEqualTo(1);
+		assertWrites(0, 3, 0);
+	}
+
+	@Test
+	void addRemoveAndReorder() {
+		Resume resume = createResume("Entries", "Java", "SQL", "Spring");
+
+		Resume edited = form(load(resume.getId()));
+		List<Skill> skills = edited.getSkills();
+		Skill added = skill("Kotlin");
+		// Drop SQL, move Spring to the front and add Kotlin
+		edited.setSkills(new ArrayList<>(List.of(skills.get(2), skills.get(0), added)));
+		save(edited);
+
+		// The new skill, the removed one and the resume's update time
+		assertWrites(1, 1, 1);
+		assertThat(load(resume.getId()).getSkills()).extracting(Skill::getName)
+				.containsExactlyInAnyOrder("Spring", "Java", "Kotlin");
+	}
+
+	@Test
+	void childOfAnotherResumeIsAddedAsNew() {
+		Resume other = createResume("Other", "Foreign");
+		Skill foreign = load(other.getId()).getSkills().get(0);
+		Resume resume = createResume("Own", "Java");
+
+		Resume edited = form(load(resume.getId()));
+		Skill submitted = skill("Taken over");
+		submitted.setId(foreign.getId());
+		edited.getSkills().add(submitted);
+		save(edited);
+
+		assertWrites(1, 1, 0);
+		assertThat(load(resume.getId()).getSkills()).extracting(Skill::getName)
+				.containsExactlyInAnyOrder("Java", "Taken over");
+		assertThat(load(other.getId()).getSkills()).extracting(Skill::getId, Skill::getName)
+				.containsExactly(tuple(foreign.getId(), "Foreign"));
+	}
+
+	@Test
+	void fieldsOutsideTheFormAreIgnored() {
+		Resume resume = createResume("Owned", "Java");
+		String token = resumeService.shareResume(resume.getId());
+		Resume before = load(resume.getId());
+
+		User intruder = new User();
+		intruder.setId(before.getUser().getId() + 1000);
+		Resume edited = form(before);
+		edited.setShareToken(SharedResumeService.newToken());
+		edited.setUser(intruder);
+		edited.setCreatedAt(LocalDateTime.of(2000, 1, 1, 0, 0));
+		save(edited);
+
+		assertWrites(0, 0, 0);
+		Resume after = load(resume.getId());
+		assertThat(resumeRepository.findShareTokenById(resume.getId())).contains(token);
+		assertThat(after.getUser().getId()).isEqualTo(user.getId());
+		assertThat(after.getCreatedAt()).isEqualTo(before.getCreatedAt());
+	}
+
+	private void assertWrites(long inserts, long updates, long deletes) {
+		assertThat(statistics.getEntityInsertCount()).as("inserts").isEqualTo(inserts);
+		assertThat(statistics.getEntityUpdateCount()).as("updates").isEqualTo(updates);
+		assertThat(statistics.getEntityDeleteCount()).as("deletes").isEqualTo(deletes);
+	}
+
+	private long updates(Class<?> entity) {
+		return statistics.getEntityStatistics(entity.getName()).getUpdateCount();
+	}
+
+	private void save(Resume edited) {
+		statistics.clear();
+		resumeService.updateResume(edited);
+	}
+
+	private Resume load(Long id) {
+		return resumeService.findByIdWithDetails(id).orElseThrow();
+	}
+
+	private Resume createResume(String title, String... skills) {
+		Resume resume = new Resume();
+		resume.setTitle(title);
+		resume.setSummary("Summary");
+		for (String name : skills) {
+			Skill skill = skill(name);
+			skill.setResume(resume);
+			resume.getSkills().add(skill);
+		}
+		Experience experience = new Experience();
+		experience.setCompanyName("Company");
+		experience.setJobTitle("Engineer");
+		experience.setStartDate(LocalDate.of(2020, 1, 1));
+		experience.setResume(resume);
+		Project project = new Project();
+		project.setName("Project");
+		project.setExperience(experience);
+		experience.getProjects().add(project);
+		resume.getExperiences().add(experience);
+		return resumeService.createResume(resume, user.getId());
+	}
+
+	/**
+	 * What the edit form submits for a resume: detached copies of every entry, carrying their ids
+	 */
+	private static Resume form(Resume persisted) {
+		Resume form = new Resume();
+		form.setId(persisted.getId());
+		form.setTitle(persisted.getTitle());
+		form.setSummary(persisted.getSummary());
+		for (Skill persistedSkill : persisted.getSkills()) {
+			Skill skill = skill(persistedSkill.getName());
+			skill.setId(persistedSkill.getId());
+			skill.setProficiencyLevel(persistedSkill.getProficiencyLevel());
+			form.getSkills().add(skill);
+		}
+		for (Experience persistedExperience : persisted.getExperiences()) {
+			Experience experience = new Experience();
+			experience.setId(persistedExperience.getId());
+			experience.setCompanyName(persistedExperience.getCompanyName());
+			experience.setJobTitle(persistedExperience.getJobTitle());
+			experience.setStartDate(persistedExperience.getStartDate());
+			experience.setEndDate(persistedExperience.getEndDate());
+			experience.setCurrentlyWorking(persistedExperience.isCurrentlyWorking());
+			experience.setDescription(persistedExperience.getDescription());
+			for (Project persistedProject : persistedExperience.getProjects()) {
+				Project project = new Project();
+				project.setId(persistedProject.getId());
+				project.setName(persistedProject.getName());
+				project.setDescription(persistedProject.getDescription());
+				project.setTechnologies(persistedProject.getTechnologies());
+				project.setUrl(persistedProject.getUrl());
+				experience.getProjects().add(project);
+			}
+			form.getExperiences().add(experience);
+		}
+		return form;
+	}
+
+	private static Skill skill(String name) {
+		Skill skill = new Skill();
+		skill.setName(name);
+		skill.setProficiencyLevel(3);
+		return skill;
+	}
+}